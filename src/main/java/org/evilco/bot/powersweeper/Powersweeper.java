@@ -27,7 +27,7 @@ import org.evilco.bot.powersweeper.configuration.CommandLineArgumentConfiguratio
 import org.evilco.bot.powersweeper.configuration.IConfiguration;
 import org.evilco.bot.powersweeper.game.ChunkLocation;
 import org.evilco.bot.powersweeper.game.IGameInterface;
-import org.evilco.bot.powersweeper.game.ScreenGameInterface;
+import org.evilco.bot.powersweeper.game.WorldStore;
 import org.evilco.bot.powersweeper.platform.DriverManager;
 
 import java.security.SecureRandom;
@@ -125,7 +125,15 @@ public class Powersweeper {
 		this.driverManager.downloadNatives ();
 
 		// initialize gamer interface
-		this.gameInterface = new ScreenGameInterface (this);
+		try {
+			this.gameInterface = configuration.getGameInterfaceClass ().getConstructor (Powersweeper.class).newInstance (this);
+		} catch (Exception ex) {
+			// log
+			getLogger ().error ("Could not load game interface implementation: " + ex.getMessage (), ex);
+
+			// exit
+			System.exit (-11);
+		}
 
 		// trace
 		getLogger ().exit ();
@@ -214,6 +222,15 @@ public class Powersweeper {
 		Long x = this.configuration.getStartX ();
 		Long y = this.configuration.getStartY ();
 
+		// resume at the location visited last
+		WorldStore store = this.gameInterface.getWorldMap ().getStore ();
+		ChunkLocation lastLocation = (store != null ? store.getLastLocation () : null);
+
+		if (x == null && y == null && lastLocation != null) {
+			x = lastLocation.getX ();
+			y = lastLocation.getY ();
+		}
+
 		// generate initial coordinates
 		Random random = new SecureRandom ();
 
@@ -223,6 +240,14 @@ public class Powersweeper {
 		// move
 		this.gameInterface.moveToChunk (new ChunkLocation (x, y));
 
+		// write persisted state to disk when the process is terminated
+		Runtime.getRuntime ().addShutdownHook (new Thread () {
+			@Override
+			public void run () {
+				Powersweeper.this.gameInterface.close ();
+			}
+		});
+
 		// enter main loop
 		while (this.alive) {
 			// trace
@@ -263,8 +288,8 @@ public class Powersweeper {
 				// trace
 				getLogger ().trace ("Waiting for " + waitTime + " ms to ensure we're not being detected (average is " + average + " ms).");*/
 
-				// sleep
-				Thread.sleep (waitTime);
+				// sleep (the interface may return early once the game reflects the last action)
+				this.gameInterface.awaitFrame (waitTime);
 			} catch (InterruptedException ex) {
 				getLogger ().warn ("Our sleep was interrupted by aliens: " + ex.getMessage (), ex);
 			}
@@ -273,6 +298,9 @@ public class Powersweeper {
 			getLogger ().trace ("Exiting processing loop.");
 		}
 
+		// write persisted state to disk
+		this.gameInterface.close ();
+
 		// trace
 		getLogger ().exit ();
 	}
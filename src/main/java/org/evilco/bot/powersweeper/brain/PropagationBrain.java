@@ -0,0 +1,568 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.brain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.evilco.bot.powersweeper.game.ChunkLocation;
+import org.evilco.bot.powersweeper.game.IChunk;
+import org.evilco.bot.powersweeper.game.IGameInterface;
+import org.evilco.bot.powersweeper.game.INeighborVisitor;
+import org.evilco.bot.powersweeper.game.WorldMap;
+import org.evilco.bot.powersweeper.game.tile.TileLocation;
+import org.evilco.bot.powersweeper.game.tile.generic.NumberTile;
+import org.evilco.bot.powersweeper.game.tile.parser.TileCounter;
+import org.evilco.bot.powersweeper.util.LongHashMap;
+import org.evilco.bot.powersweeper.util.LongHashSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deduces mines and safe cells by propagating the constraints of all frontier number tiles.
+ *
+ * Every number tile whose neighbors are all known contributes a constraint (the amount of mines remaining among its
+ * untouched neighbors). Constraints are processed from a worklist: Constraints without remaining mines clear all of
+ * their cells, constraints with as many mines as cells flag all of their cells and overlapping constraints are
+ * compared pairwise (which covers subsets, supersets and partial overlaps). Each deduced cell only queues the
+ * constraints it is part of again.
+ *
+ * Deduced cells within the current chunk are flagged or touched directly. If nothing can be deduced, the brain falls
+ * back to exploring (or moves on to the next chunk).
+ *
+ * Propagation is skipped if the chunk did not change since a turn which did not deduce anything (see
+ * {@link IGameInterface#getChanges(int[])}).
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class PropagationBrain implements IBrain {
+
+	/**
+	 * Stores the constraints each undetermined cell is part of (indexed by cell key).
+	 */
+	private final LongHashMap<List<Constraint>> cellConstraints = new LongHashMap<> ();
+
+	/**
+	 * Stores the locations of all undetermined cells (indexed by cell key).
+	 */
+	private final LongHashMap<TileLocation> cells = new LongHashMap<> ();
+
+	/**
+	 * Stores the buffer for the tiles changed by the last update (re-used between turns).
+	 */
+	private int[] changes = null;
+
+	/**
+	 * Stores the visitor used for collecting the cells of a constraint (re-used between calls).
+	 */
+	private final ConstraintCollector collector = new ConstraintCollector ();
+
+	/**
+	 * Stores the amount of constraints.
+	 */
+	private int constraintCount = 0;
+
+	/**
+	 * Indicates whether the previous turn acted on deduced cells.
+	 */
+	private boolean deduced = false;
+
+	/**
+	 * Stores the location of the chunk examined during the previous turn.
+	 */
+	private ChunkLocation location = null;
+
+	/**
+	 * Stores the internal logger instance.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final Logger logger = LogManager.getLogger (PropagationBrain.class);
+
+	/**
+	 * Stores all cells known to contain a mine.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private final LongHashSet mines = new LongHashSet ();
+
+	/**
+	 * Stores the random used for picking cells when exploring.
+	 */
+	private final Random random = new Random ();
+
+	/**
+	 * Stores all cells known to be safe.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private final LongHashSet safe = new LongHashSet ();
+
+	/**
+	 * Stores the stamp used for visiting every neighboring constraint only once.
+	 */
+	private int stamp = 0;
+
+	/**
+	 * Stores all constraints which need to be (re-)examined.
+	 */
+	private final Deque<Constraint> worklist = new ArrayDeque<> ();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void think (IGameInterface gameInterface) {
+		IChunk chunk = gameInterface.getChunk ();
+		WorldMap world = gameInterface.getWorldMap ();
+
+		// propagation deduces nothing again if the chunk did not change since a turn which deduced nothing
+		if (this.changes == null || this.changes.length < (chunk.getWidth () * chunk.getHeight ())) this.changes = new int[(chunk.getWidth () * chunk.getHeight ())];
+		boolean changed = (this.deduced || !chunk.getLocation ().equals (this.location) || gameInterface.getChanges (this.changes) > 0);
+
+		this.location = chunk.getLocation ();
+		this.deduced = false;
+
+		if (changed) {
+			// build constraints
+			this.reset ();
+			for (NumberTile tile : world.getFrontierTiles (chunk)) this.addConstraint (world, tile);
+
+			// propagate
+			this.propagate ();
+			getLogger ().debug ("Deduced " + this.mines.size () + " mines and " + this.safe.size () + " safe cells from " + this.constraintCount + " constraints.");
+
+			// act on deduced cells
+			this.deduced = this.apply (gameInterface, chunk);
+			if (this.deduced) return;
+		} else
+			getLogger ().debug ("Chunk did not change since the previous turn. Skipping propagation.");
+
+		// explore
+		NumberTile tile = chunk.findViableExplorationTile ();
+
+		if (tile != null) {
+			gameInterface.touchTile (tile.getLocation ().getBlankNeighbor ().getLocation ());
+			return;
+		}
+
+		if ((chunk.isBlank () || chunk.getNumberTiles ().length == 0) && this.touchRandomTile (gameInterface, chunk)) return;
+
+		// move on
+		gameInterface.moveToChunk (chunk.getLocation ().getRelative (1, 0));
+	}
+
+	/**
+	 * Adds the constraint of a number tile (unless some of its neighbors are unknown).
+	 * @param world The world map.
+	 * @param tile The number tile.
+	 */
+	protected void addConstraint (WorldMap world, NumberTile tile) {
+		IChunk chunk = tile.getLocation ().getChunk ();
+		short x = tile.getLocation ().getX ();
+		short y = tile.getLocation ().getY ();
+
+		// neighbors within chunks we have not seen yet are unknown
+		if (world.getNeighborCount (chunk, x, y) < 8) return;
+
+		// collect untouched neighbors
+		this.collector.reset ();
+		world.visitNeighbors (chunk, x, y, this.collector);
+		if (this.collector.count == 0) return;
+
+		this.addConstraint (new Constraint (Arrays.copyOf (this.collector.keys, this.collector.count), (tile.getValue () - this.collector.mines)));
+	}
+
+	/**
+	 * Registers a constraint with all of its cells and queues it for examination.
+	 * @param constraint The constraint.
+	 */
+	protected void addConstraint (Constraint constraint) {
+		Arrays.sort (constraint.cells);
+
+		for (long cell : constraint.cells) {
+			List<Constraint> constraints = this.cellConstraints.get (cell);
+
+			if (constraints == null) {
+				constraints = new ArrayList<> ();
+				this.cellConstraints.put (cell, constraints);
+			}
+
+			constraints.add (constraint);
+		}
+
+		this.constraintCount++;
+		this.enqueue (constraint);
+	}
+
+	/**
+	 * Flags and touches all deduced cells within the current chunk.
+	 * @param gameInterface The game interface.
+	 * @param chunk The current chunk.
+	 * @return True if any action was performed.
+	 */
+	protected boolean apply (IGameInterface gameInterface, IChunk chunk) {
+		boolean applied = false;
+
+		// flag mines
+		long[] keys = this.mines.toArray ();
+		Arrays.sort (keys);
+
+		for (long key : keys) {
+			TileLocation location = this.cells.get (key);
+			if (!location.getChunk ().getLocation ().equals (chunk.getLocation ())) continue;
+
+			gameInterface.flagTile (location);
+			applied = true;
+		}
+
+		// touch safe cells
+		keys = this.safe.toArray ();
+		Arrays.sort (keys);
+
+		for (long key : keys) {
+			TileLocation location = this.cells.get (key);
+			if (!location.getChunk ().getLocation ().equals (chunk.getLocation ())) continue;
+
+			gameInterface.touchTile (location);
+			applied = true;
+		}
+
+		return applied;
+	}
+
+	/**
+	 * Compares two overlapping constraints and determines the cells outside of their overlap if possible.
+	 *
+	 * The overlap holds at least as many mines as either constraint cannot place outside of it and at most as many
+	 * mines as it has cells or either constraint has mines. Cells outside of the overlap are safe if the constraint
+	 * is satisfied by the overlap alone and are mines if all of the remaining mines have to be placed there.
+	 * @param constraint The first constraint.
+	 * @param other The second constraint.
+	 * @return True if any cell of the first constraint was determined.
+	 */
+	protected boolean compare (Constraint constraint, Constraint other) {
+		int shared = constraint.countShared (other);
+		if (shared == 0) return false;
+
+		int exclusive = (constraint.size - shared);
+		int otherExclusive = (other.size - shared);
+
+		int minimum = Math.max (0, Math.max ((constraint.mines - exclusive), (other.mines - otherExclusive)));
+		int maximum = Math.min (shared, Math.min (constraint.mines, other.mines));
+
+		boolean determined = false;
+
+		if (exclusive > 0) {
+			if (constraint.mines == minimum)
+				determined |= this.determineExclusive (constraint, other, false);
+			else if ((constraint.mines - maximum) == exclusive)
+				determined |= this.determineExclusive (constraint, other, true);
+		}
+
+		// cells of the second constraint queue it again on their own
+		if (otherExclusive > 0) {
+			if (other.mines == minimum)
+				this.determineExclusive (other, constraint, false);
+			else if ((other.mines - maximum) == otherExclusive)
+				this.determineExclusive (other, constraint, true);
+		}
+
+		return determined;
+	}
+
+	/**
+	 * Marks a cell as mine or as safe and queues all constraints it is part of.
+	 * @param cell The cell key.
+	 * @param mine True if the cell contains a mine.
+	 * @return True if the cell was not determined before.
+	 */
+	protected boolean determine (long cell, boolean mine) {
+		if (this.mines.contains (cell) || this.safe.contains (cell)) return false;
+
+		if (mine)
+			this.mines.add (cell);
+		else
+			this.safe.add (cell);
+
+		for (Constraint constraint : this.cellConstraints.get (cell)) this.enqueue (constraint);
+		return true;
+	}
+
+	/**
+	 * Determines all cells of a constraint which are not part of another constraint.
+	 * @param constraint The constraint.
+	 * @param other The other constraint (or null to determine all cells).
+	 * @param mine True if the cells contain mines.
+	 * @return True if any cell was determined.
+	 */
+	protected boolean determineExclusive (Constraint constraint, Constraint other, boolean mine) {
+		boolean determined = false;
+
+		for (int i = 0; i < constraint.size; i++) {
+			if (other == null || !other.contains (constraint.cells[i])) determined |= this.determine (constraint.cells[i], mine);
+		}
+
+		return determined;
+	}
+
+	/**
+	 * Queues a constraint for examination (unless it is queued already).
+	 * @param constraint The constraint.
+	 */
+	protected void enqueue (Constraint constraint) {
+		if (constraint.queued) return;
+
+		constraint.queued = true;
+		this.worklist.add (constraint);
+	}
+
+	/**
+	 * Examines a single constraint.
+	 * @param constraint The constraint.
+	 */
+	protected void examine (Constraint constraint) {
+		this.simplify (constraint);
+		if (constraint.size == 0) return;
+
+		// skip contradicting constraints (caused by misread tiles)
+		if (constraint.mines < 0 || constraint.mines > constraint.size) {
+			getLogger ().debug ("Skipping contradicting constraint of " + constraint.size + " cells and " + constraint.mines + " mines.");
+			constraint.size = 0;
+			return;
+		}
+
+		// trivial rules
+		if (constraint.mines == 0 || constraint.mines == constraint.size) {
+			this.determineExclusive (constraint, null, (constraint.mines > 0));
+			return;
+		}
+
+		// compare with overlapping constraints (stop as soon as the constraint itself changed)
+		this.stamp++;
+		constraint.stamp = this.stamp;
+
+		for (int i = 0; i < constraint.size; i++) {
+			for (Constraint other : this.cellConstraints.get (constraint.cells[i])) {
+				if (other.stamp == this.stamp) continue;
+				other.stamp = this.stamp;
+
+				this.simplify (other);
+				if (other.size == 0 || other.mines < 0 || other.mines > other.size) continue;
+
+				if (this.compare (constraint, other)) return;
+			}
+		}
+	}
+
+	/**
+	 * Examines queued constraints until the worklist is empty.
+	 */
+	protected void propagate () {
+		while (!this.worklist.isEmpty ()) {
+			Constraint constraint = this.worklist.poll ();
+			constraint.queued = false;
+
+			this.examine (constraint);
+		}
+	}
+
+	/**
+	 * Resets all state of the previous turn.
+	 */
+	protected void reset () {
+		this.cellConstraints.clear ();
+		this.cells.clear ();
+		this.constraintCount = 0;
+		this.mines.clear ();
+		this.safe.clear ();
+		this.worklist.clear ();
+	}
+
+	/**
+	 * Removes all determined cells from a constraint.
+	 * @param constraint The constraint.
+	 */
+	protected void simplify (Constraint constraint) {
+		int size = 0;
+
+		for (int i = 0; i < constraint.size; i++) {
+			long cell = constraint.cells[i];
+
+			if (this.mines.contains (cell))
+				constraint.mines--;
+			else if (!this.safe.contains (cell))
+				constraint.cells[size++] = cell;
+		}
+
+		constraint.size = size;
+	}
+
+	/**
+	 * Touches a random untouched tile within the current chunk.
+	 * @param gameInterface The game interface.
+	 * @param chunk The current chunk.
+	 * @return False if the chunk does not contain any untouched tiles.
+	 */
+	protected boolean touchRandomTile (IGameInterface gameInterface, IChunk chunk) {
+		int count = 0;
+
+		for (short y = 0; y < chunk.getHeight (); y++) {
+			for (short x = 0; x < chunk.getWidth (); x++) if (chunk.isTileType (x, y, TileCounter.TileType.BLANK)) count++;
+		}
+
+		if (count == 0) return false;
+		int selected = this.random.nextInt (count);
+
+		for (short y = 0; y < chunk.getHeight (); y++) {
+			for (short x = 0; x < chunk.getWidth (); x++) {
+				if (!chunk.isTileType (x, y, TileCounter.TileType.BLANK) || selected-- > 0) continue;
+
+				gameInterface.touchTile (new TileLocation (x, y, chunk));
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Represents the amount of mines among a set of undetermined cells.
+	 */
+	protected static class Constraint {
+
+		/**
+		 * Stores the cell keys (sorted, only the first {@link #size} entries are in use).
+		 */
+		private final long[] cells;
+
+		/**
+		 * Stores the amount of mines among the cells.
+		 */
+		private int mines;
+
+		/**
+		 * Indicates whether the constraint is queued for examination.
+		 */
+		private boolean queued = false;
+
+		/**
+		 * Stores the amount of cells in use.
+		 */
+		private int size;
+
+		/**
+		 * Stores the stamp of the examination which visited this constraint last.
+		 */
+		private int stamp = 0;
+
+		/**
+		 * Constructs a new Constraint instance.
+		 * @param cells The cell keys.
+		 * @param mines The amount of mines.
+		 */
+		public Constraint (long[] cells, int mines) {
+			this.cells = cells;
+			this.mines = mines;
+			this.size = cells.length;
+		}
+
+		/**
+		 * Checks whether a cell is part of this constraint.
+		 * @param cell The cell key.
+		 * @return True if the cell is part of this constraint.
+		 */
+		public boolean contains (long cell) {
+			return (Arrays.binarySearch (this.cells, 0, this.size, cell) >= 0);
+		}
+
+		/**
+		 * Counts the cells shared with another constraint.
+		 * @param other The other constraint.
+		 * @return The amount of shared cells.
+		 */
+		public int countShared (Constraint other) {
+			int count = 0;
+
+			for (int i = 0, j = 0; i < this.size && j < other.size; ) {
+				if (this.cells[i] < other.cells[j])
+					i++;
+				else if (this.cells[i] > other.cells[j])
+					j++;
+				else {
+					count++;
+					i++;
+					j++;
+				}
+			}
+
+			return count;
+		}
+	}
+
+	/**
+	 * Collects the untouched neighbors of a number tile and counts its known mines.
+	 */
+	protected class ConstraintCollector implements INeighborVisitor {
+
+		/**
+		 * Stores the amount of collected cells.
+		 */
+		private int count = 0;
+
+		/**
+		 * Stores the collected cell keys.
+		 */
+		private final long[] keys = new long[8];
+
+		/**
+		 * Stores the amount of bombs and flags.
+		 */
+		private int mines = 0;
+
+		/**
+		 * Resets the collector.
+		 */
+		public void reset () {
+			this.count = 0;
+			this.mines = 0;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean visit (IChunk chunk, short x, short y) {
+			if (chunk.isTileType (x, y, TileCounter.TileType.BOMB) || chunk.isTileType (x, y, TileCounter.TileType.FLAG)) {
+				this.mines++;
+				return true;
+			}
+
+			if (!chunk.isTileType (x, y, TileCounter.TileType.BLANK)) return true;
+
+			// register cell
+			long key = ChunkLocation.getKey (((chunk.getLocation ().getX () * chunk.getWidth ()) + x), ((chunk.getLocation ().getY () * chunk.getHeight ()) + y));
+			if (!PropagationBrain.this.cells.containsKey (key)) PropagationBrain.this.cells.put (key, new TileLocation (x, y, chunk));
+
+			this.keys[this.count++] = key;
+			return true;
+		}
+	}
+}
\ No newline at end of file
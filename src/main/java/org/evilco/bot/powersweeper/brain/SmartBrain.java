@@ -4,16 +4,18 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.evilco.bot.powersweeper.game.IChunk;
 import org.evilco.bot.powersweeper.game.IGameInterface;
-import org.evilco.bot.powersweeper.game.MatrixChunk;
+import org.evilco.bot.powersweeper.game.INeighborVisitor;
 import org.evilco.bot.powersweeper.game.ScreenGameInterface;
-import org.evilco.bot.powersweeper.game.tile.ITile;
+import org.evilco.bot.powersweeper.game.WorldMap;
+import org.evilco.bot.powersweeper.game.tile.TileLocation;
 import org.evilco.bot.powersweeper.game.tile.generic.NumberTile;
-import org.evilco.bot.powersweeper.game.tile.generic.UntouchedTile;
 import org.evilco.bot.powersweeper.game.tile.parser.TileCounter;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * Created by Nick on 8/19/2014.
@@ -29,6 +31,11 @@ public class SmartBrain implements IBrain {
     ArrayList<NumberTile> toFlag = new ArrayList<>();
     ArrayList<NumberTile> toClear = new ArrayList<>();
 
+    /**
+     * Stores the visitor used for finding overlapping tiles (re-used between calls).
+     */
+    private final NeighborMatcher matcher = new NeighborMatcher();
+
     /**
      * Stores the internal logger instance.
      */
@@ -43,20 +50,22 @@ public class SmartBrain implements IBrain {
          * This means looking to see if there's a number tile that has that many bombs
          * (or flags) around it, as WELL as having some blank tiles around it.
          */
-        MatrixChunk chunk = (MatrixChunk) gameInterface.getChunk();
-        NumberTile[] numberTiles = chunk.getNumberTiles();
+        IChunk chunk = gameInterface.getChunk();
+        WorldMap world = gameInterface.getWorldMap();
+        //only number tiles with blank neighbors can lead to new flags or clicks
+        NumberTile[] numberTiles = world.getFrontierTiles(chunk);
         int initialSize = gameInterface.getActionQueue().size();
-        if (numberTiles.length > 0) {
-            if (handleNumberTiles(numberTiles, true)) {
+        if (numberTiles.length > 0 || chunk.getNumberTiles().length > 0) {
+            if (handleNumberTiles(world, numberTiles, true)) {
                 if (!toFlag.isEmpty()) {
-                    sortCollectedTiles(toFlag, true);
+                    sortCollectedTiles(world, toFlag, true);
                     for (NumberTile nt : toFlag) {
                         gameInterface.flagTile(nt.getLocation());
                     }
                     toFlag.clear();
                 }
                 if (!toClear.isEmpty()) {
-                    sortCollectedTiles(toClear, false);
+                    sortCollectedTiles(world, toClear, false);
                     for (NumberTile nt : toClear) {
                         gameInterface.touchTile(nt.getLocation());
                     }
@@ -85,17 +94,22 @@ public class SmartBrain implements IBrain {
 
     }
 
-    public boolean handleNumberTiles(NumberTile[] ntarr, boolean flagging) {
+    public boolean handleNumberTiles(WorldMap world, NumberTile[] ntarr, boolean flagging) {
         boolean flagged = false;
         boolean marked = false;
         for (NumberTile nt : ntarr) {
             short value = nt.getValue();
-            ITile[] neighbors = nt.getLocation().getNeighbors();
-            if (neighbors.length < 6) continue;
+            IChunk chunk = nt.getLocation().getChunk();
+            short x = nt.getLocation().getX();
+            short y = nt.getLocation().getY();
+            //neighbors within chunks we have not seen yet are unknown
+            if (world.getNeighborCount(chunk, x, y) < 8) continue;
+            //adjacent chunks are not refreshed from here, so only act if the result is visible within this chunk
+            if (chunk.countNeighbors(x, y, TileCounter.TileType.BLANK) == 0) continue;
             int bombCount = 0;
-            bombCount += TileCounter.getCount(neighbors, TileCounter.TileType.BOMB);
-            bombCount += TileCounter.getCount(neighbors, TileCounter.TileType.FLAG);
-            int blankCount = TileCounter.getCount(neighbors, TileCounter.TileType.BLANK);
+            bombCount += world.countNeighbors(chunk, x, y, TileCounter.TileType.BOMB);
+            bombCount += world.countNeighbors(chunk, x, y, TileCounter.TileType.FLAG);
+            int blankCount = world.countNeighbors(chunk, x, y, TileCounter.TileType.BLANK);
 
             if (flagging) {//flagging first
                 if (bombCount != value) {
@@ -122,7 +136,7 @@ public class SmartBrain implements IBrain {
             }
         }
         if (flagging) {
-            return flagged || handleNumberTiles(ntarr, false);
+            return flagged || handleNumberTiles(world, ntarr, false);
         } else {
             return marked;
         }
@@ -130,15 +144,14 @@ public class SmartBrain implements IBrain {
 
 
     //This method will go through and compare every ITile to see if they don't overlap.
-    public void sortCollectedTiles(ArrayList<NumberTile> list, boolean flags) {
+    public void sortCollectedTiles(WorldMap world, ArrayList<NumberTile> list, boolean flags) {
         ArrayList<NumberTile> toRemove = new ArrayList<>();
         if (!list.isEmpty()) {
             Collections.sort(list);
             Collections.reverse(list);
             for (NumberTile nt : list) {
                 if (toRemove.contains(nt)) continue;
-                ITile[] neighbors = nt.getLocation().getNeighbors();
-                NumberTile[] possibleMatches = arrayContains(neighbors, list, flags, nt);
+                NumberTile[] possibleMatches = arrayContains(world, nt.getLocation(), list, flags, nt);
                 if (possibleMatches.length > 1) {
                     Collections.addAll(toRemove, possibleMatches);
                 }
@@ -152,21 +165,54 @@ public class SmartBrain implements IBrain {
         toRemove.clear();
     }
 
-    //checks to see if the list contains any of the neighbors in the array
-    private NumberTile[] arrayContains(ITile[] array, ArrayList<NumberTile> list, boolean flags, NumberTile parent) {
+    //checks to see if the list contains any of the neighbors of the location
+    private NumberTile[] arrayContains(WorldMap world, TileLocation location, ArrayList<NumberTile> list, boolean flags, NumberTile parent) {
         ArrayList<NumberTile> toReturn = new ArrayList<>();
-        for (ITile t : array) {
-            if (parent != null && parent.equals(t)) continue;
+        matcher.reset(world, list, flags, parent, toReturn);
+        world.visitNeighbors(location.getChunk(), location.getX(), location.getY(), matcher);
+        return toReturn.toArray(new NumberTile[toReturn.size()]);
+    }
+
+    /**
+     * Collects the list entries which neighbor a tile (or, when looking at flags, which neighbor one of its untouched
+     * neighbors).
+     */
+    private static class NeighborMatcher implements INeighborVisitor {
+        private WorldMap world;
+        private List<NumberTile> list;
+        private boolean flags;
+        private NumberTile parent;
+        private List<NumberTile> matches;
+
+        public void reset(WorldMap world, List<NumberTile> list, boolean flags, NumberTile parent, List<NumberTile> matches) {
+            this.world = world;
+            this.list = list;
+            this.flags = flags;
+            this.parent = parent;
+            this.matches = matches;
+        }
+
+        @Override
+        public boolean visit(IChunk chunk, short x, short y) {
+            if (parent != null && isAt(parent, chunk, x, y)) return true;
             if (flags) {
-               if (t instanceof UntouchedTile) {
-                  Collections.addAll(toReturn, arrayContains(t.getLocation().getNeighbors(), list, false, parent));
-               }
+                if (chunk.isTileType(x, y, TileCounter.TileType.BLANK)) {
+                    flags = false;
+                    world.visitNeighbors(chunk, x, y, this);
+                    flags = true;
+                }
             } else {
-                for (NumberTile nt : list) {
-                    if (nt.equals(t)) toReturn.add((NumberTile)t);
+                for (int i = 0; i < list.size(); i++) {
+                    if (isAt(list.get(i), chunk, x, y)) matches.add(list.get(i));
                 }
             }
+            return true;
+        }
+
+        //tiles are taken from the current chunk so their position identifies them
+        private static boolean isAt(NumberTile tile, IChunk chunk, short x, short y) {
+            TileLocation location = tile.getLocation();
+            return location.getX() == x && location.getY() == y && location.getChunk() == chunk;
         }
-        return toReturn.toArray(new NumberTile[toReturn.size()]);
     }
 }
@@ -19,6 +19,9 @@ import lombok.Getter;
 import lombok.NonNull;
 import org.apache.commons.cli.*;
 import org.evilco.bot.powersweeper.brain.IBrain;
+import org.evilco.bot.powersweeper.game.CaptureMode;
+import org.evilco.bot.powersweeper.game.IGameInterface;
+import org.evilco.bot.powersweeper.game.tile.parser.image.ImageTileParser;
 import org.evilco.bot.powersweeper.platform.Driver;
 
 import java.io.File;
@@ -34,28 +37,50 @@ public class CommandLineArgumentConfiguration implements IConfiguration {
 	 */
 	public static final String DEFAULT_BRAIN = "org.evilco.bot.powersweeper.brain.IdiotBrain";
 
+	/**
+	 * Defines the default capture mode.
+	 */
+	public static final String DEFAULT_CAPTURE_MODE = "SCREENSHOT";
+
 	/**
 	 * Defines the default driver.
 	 */
 	public static final String DEFAULT_DRIVER = "CHROME";
 
+	/**
+	 * Defines the default game interface.
+	 */
+	public static final String DEFAULT_INTERFACE = "org.evilco.bot.powersweeper.game.ScreenGameInterface";
+
 	/**
 	 * Defines the default storage directory for natives.
 	 */
 	public static final String DEFAULT_NATIVE_DIRECTORY = "natives/";
 
+	/**
+	 * Defines the default amount of parser threads.
+	 */
+	public static final int DEFAULT_PARSER_THREADS = 1;
+
 	/**
 	 * Defines valid command line options.
 	 */
 	public static final Options OPTIONS = (new Options ())
 							.addOption (OptionBuilder.withLongOpt ("brain").hasArg ().create ("b"))
 							.addOption (OptionBuilder.withLongOpt ("help").create ("h"))
+							.addOption (OptionBuilder.withLongOpt ("interface").hasArg ().create ())
+							.addOption (OptionBuilder.withLongOpt ("capture").hasArg ().create ())
 							.addOption (OptionBuilder.withLongOpt ("natives").hasArg ().create ())
 							.addOption (OptionBuilder.withLongOpt ("nonativedownload").create ())
 							.addOption (OptionBuilder.withLongOpt ("debug").create ())
 							.addOption (OptionBuilder.withLongOpt ("dumpunknowntiles").create ())
 							.addOption (OptionBuilder.withLongOpt ("driver").hasArg ().create ())
+							.addOption (OptionBuilder.withLongOpt ("parsercache").hasArg ().create ())
+							.addOption (OptionBuilder.withLongOpt ("parserthreads").hasArg ().create ())
+							.addOption (OptionBuilder.withLongOpt ("snapshots").hasArg ().create ())
+							.addOption (OptionBuilder.withLongOpt ("strict").create ())
 							.addOption (OptionBuilder.withLongOpt ("trace").create ())
+							.addOption (OptionBuilder.withLongOpt ("worldstore").hasArg ().create ())
 							.addOption (OptionBuilder.hasArg ().create ("x"))
 							.addOption (OptionBuilder.hasArg ().create ("y"));
 
@@ -82,6 +107,14 @@ public class CommandLineArgumentConfiguration implements IConfiguration {
 		return Class.forName ((this.commandLine.hasOption ("brain") ? this.commandLine.getOptionValue ("brain") : DEFAULT_BRAIN)).asSubclass (IBrain.class);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CaptureMode getCaptureMode () {
+		return (CaptureMode.valueOf ((this.commandLine.hasOption ("capture") ? this.commandLine.getOptionValue ("capture").toUpperCase () : DEFAULT_CAPTURE_MODE)));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -90,6 +123,14 @@ public class CommandLineArgumentConfiguration implements IConfiguration {
 		return (Driver.valueOf ((this.commandLine.hasOption ("driver") ? this.commandLine.getOptionValue ("driver").toUpperCase () : DEFAULT_DRIVER)));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Class<? extends IGameInterface> getGameInterfaceClass () throws ClassNotFoundException {
+		return Class.forName ((this.commandLine.hasOption ("interface") ? this.commandLine.getOptionValue ("interface") : DEFAULT_INTERFACE)).asSubclass (IGameInterface.class);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -98,6 +139,30 @@ public class CommandLineArgumentConfiguration implements IConfiguration {
 		return (new File ((this.commandLine.hasOption ("natives") ? this.commandLine.getOptionValue ("natives") : DEFAULT_NATIVE_DIRECTORY)));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getParserCacheSize () {
+		return (this.commandLine.hasOption ("parsercache") ? Integer.parseInt (this.commandLine.getOptionValue ("parsercache")) : ImageTileParser.DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getParserThreads () {
+		return (this.commandLine.hasOption ("parserthreads") ? Integer.parseInt (this.commandLine.getOptionValue ("parserthreads")) : DEFAULT_PARSER_THREADS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public File getSnapshotFile () {
+		return (this.commandLine.hasOption ("snapshots") ? new File (this.commandLine.getOptionValue ("snapshots")) : null);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -114,6 +179,14 @@ public class CommandLineArgumentConfiguration implements IConfiguration {
 		return (this.commandLine.hasOption ("y") ? Long.parseLong (this.commandLine.getOptionValue ("y")) : null);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public File getWorldStoreFile () {
+		return (this.commandLine.hasOption ("worldstore") ? new File (this.commandLine.getOptionValue ("worldstore")) : null);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -138,6 +211,14 @@ public class CommandLineArgumentConfiguration implements IConfiguration {
 		return !this.commandLine.hasOption ("nonativedownload");
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isStrictVerificationEnabled () {
+		return this.commandLine.hasOption ("strict");
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -16,6 +16,8 @@
 package org.evilco.bot.powersweeper.configuration;
 
 import org.evilco.bot.powersweeper.brain.IBrain;
+import org.evilco.bot.powersweeper.game.CaptureMode;
+import org.evilco.bot.powersweeper.game.IGameInterface;
 import org.evilco.bot.powersweeper.platform.Driver;
 
 import java.io.File;
@@ -33,18 +35,49 @@ public interface IConfiguration {
 	 */
 	public Class<? extends IBrain> getBrainClass () throws ClassNotFoundException;
 
+	/**
+	 * Returns the way the game board is read from the browser.
+	 * @return The capture mode.
+	 */
+	public CaptureMode getCaptureMode ();
+
 	/**
 	 * Returns the bot driver.
 	 * @return The driver type.
 	 */
 	public Driver getDriver ();
 
+	/**
+	 * Returns the game interface class.
+	 * @return The class.
+	 * @throws ClassNotFoundException
+	 */
+	public Class<? extends IGameInterface> getGameInterfaceClass () throws ClassNotFoundException;
+
 	/**
 	 * Returns the directory which stores the native directories.
 	 * @return The directory reference.
 	 */
 	public File getNativeLibraryDirectory ();
 
+	/**
+	 * Returns the maximum amount of cached tile parse results.
+	 * @return The cache size (zero disables the cache).
+	 */
+	public int getParserCacheSize ();
+
+	/**
+	 * Returns the amount of threads used for parsing tiles.
+	 * @return The thread count (values below two disable parallel parsing).
+	 */
+	public int getParserThreads ();
+
+	/**
+	 * Returns the file snapshots of all updated chunks are appended to.
+	 * @return The file (or null if snapshots are not recorded).
+	 */
+	public File getSnapshotFile ();
+
 	/**
 	 * Returns the start X-Coordinate.
 	 * @return The X-Coordinate.
@@ -57,6 +90,12 @@ public interface IConfiguration {
 	 */
 	public Long getStartY ();
 
+	/**
+	 * Returns the file chunks are persisted in.
+	 * @return The file (or null if chunks are not persisted).
+	 */
+	public File getWorldStoreFile ();
+
 	/**
 	 * Checks whether debugging is enabled.
 	 * @return True if debugging is enabled.
@@ -75,6 +114,12 @@ public interface IConfiguration {
 	 */
 	public boolean isNativeDownloadEnabled ();
 
+	/**
+	 * Checks whether parsed tiles are strictly verified against their full template.
+	 * @return True if strict verification is enabled.
+	 */
+	public boolean isStrictVerificationEnabled ();
+
 	/**
 	 * Checks whether trace log messages are enabled.
 	 * @return True if trace messages are enabled.
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import org.evilco.bot.powersweeper.game.tile.ITile;
+import org.evilco.bot.powersweeper.game.tile.generic.NumberTile;
+import org.evilco.bot.powersweeper.game.tile.parser.TileCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides the chunk queries which can be answered through {@link #getTile(short, short)} alone.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public abstract class AbstractChunk implements IChunk {
+
+	/**
+	 * Defines the amount of untouched tiles a chunk needs to be considered blank.
+	 */
+	public static final int BLANK_THRESHOLD = 250;
+
+	/**
+	 * Stores the chunk height.
+	 */
+	@Getter
+	private final short height;
+
+	/**
+	 * Stores the chunk location.
+	 */
+	@Getter
+	private final ChunkLocation location;
+
+	/**
+	 * Stores the neighbor table of this chunk size.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private final NeighborTable neighbors;
+
+	/**
+	 * Stores the chunk width.
+	 */
+	@Getter
+	private final short width;
+
+	/**
+	 * Constructs a new AbstractChunk instance.
+	 * @param width The width.
+	 * @param height The height.
+	 * @param location The location.
+	 */
+	public AbstractChunk (short width, short height, @NonNull ChunkLocation location) {
+		this.width = width;
+		this.height = height;
+		this.location = location;
+		this.neighbors = NeighborTable.getInstance (width, height);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int countNeighbors (short x, short y, TileCounter.TileType type) {
+		int index = ((y * this.width) + x);
+		int count = 0;
+
+		for (int i = this.neighbors.getStart (index); i < this.neighbors.getEnd (index); i++) {
+			int neighbor = this.neighbors.getNeighbor (i);
+			if (this.isTileType (((short) (neighbor % this.width)), ((short) (neighbor / this.width)), type)) count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public NumberTile findNumberTile (short number) {
+		for (NumberTile tile : this.getNumberTiles ()) {
+			if (tile.getValue () == number) return tile;
+		}
+
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Usually, this is a "1" tile with a bunch of untouched neighbors to try clicking.
+	 */
+	@Override
+	public NumberTile findViableExplorationTile () {
+		for (NumberTile tile : this.getFrontierTiles ()) {
+			short x = tile.getLocation ().getX ();
+			short y = tile.getLocation ().getY ();
+
+			if (this.getNeighborCount (x, y) > 5 && tile.getValue () < 4 && this.countNeighbors (x, y, TileCounter.TileType.BLANK) > 4) return tile;
+		}
+
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public NumberTile[] getFrontierTiles () {
+		List<NumberTile> tiles = new ArrayList<> ();
+
+		for (NumberTile tile : this.getNumberTiles ()) {
+			if (this.countNeighbors (tile.getLocation ().getX (), tile.getLocation ().getY (), TileCounter.TileType.BLANK) > 0) tiles.add (tile);
+		}
+
+		return tiles.toArray (new NumberTile[tiles.size ()]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getNeighborCount (short x, short y) {
+		return this.neighbors.getCount (((y * this.width) + x));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public NumberTile[] getNumberTiles () {
+		List<NumberTile> tiles = new ArrayList<> ();
+
+		for (short y = 0; y < this.height; y++) {
+			for (short x = 0; x < this.width; x++) {
+				ITile tile = this.getTile (x, y);
+				if (tile instanceof NumberTile) tiles.add (((NumberTile) tile));
+			}
+		}
+
+		return tiles.toArray (new NumberTile[tiles.size ()]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isBlank () {
+		int count = 0;
+
+		for (short y = 0; y < this.height; y++) {
+			for (short x = 0; x < this.width; x++) {
+				if (this.isTileType (x, y, TileCounter.TileType.BLANK)) count++;
+			}
+		}
+
+		return (count > BLANK_THRESHOLD);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isTileType (short x, short y, TileCounter.TileType type) {
+		return TileCounter.matches (this.getTile (x, y), type);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean visitNeighbors (short x, short y, INeighborVisitor visitor) {
+		int index = ((y * this.width) + x);
+
+		for (int i = this.neighbors.getStart (index); i < this.neighbors.getEnd (index); i++) {
+			int neighbor = this.neighbors.getNeighbor (i);
+			if (!visitor.visit (this, ((short) (neighbor % this.width)), ((short) (neighbor / this.width)))) return false;
+		}
+
+		return true;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+import lombok.NonNull;
+import org.evilco.bot.powersweeper.game.tile.generic.NumberTile;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileParser;
+import org.evilco.bot.powersweeper.game.tile.parser.TileCounter;
+
+import java.util.Arrays;
+
+/**
+ * Stores an additional bit mask per row and tile code on top of the packed codes.
+ *
+ * Neighbor counts which are not tracked by counters are answered by masking three rows with a window around the tile
+ * and counting the remaining bits while whole-chunk queries (such as blank detection and number tiles) operate on entire
+ * rows at once. Rows are stored in a single long each which limits chunks to a width of 64 tiles.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class BitboardChunk extends PackedChunk {
+
+	/**
+	 * Defines the maximum chunk width.
+	 */
+	public static final int MAXIMUM_WIDTH = 64;
+
+	/**
+	 * Stores the row masks of all codes (indexed by code and row).
+	 */
+	private final long[][] masks;
+
+	/**
+	 * Stores the row masks of all number tiles regardless of their value.
+	 */
+	private final long[] numbers;
+
+	/**
+	 * Constructs a new BitboardChunk instance.
+	 * @param width The width.
+	 * @param height The height.
+	 * @param location The location.
+	 * @param parser The parser used for materializing tiles.
+	 */
+	public BitboardChunk (short width, short height, @NonNull ChunkLocation location, @NonNull ITileParser parser) {
+		super (width, height, location, parser);
+
+		if (width > MAXIMUM_WIDTH) throw new IllegalArgumentException ("Chunks may not exceed a width of " + MAXIMUM_WIDTH + " tiles.");
+
+		this.masks = new long[CODE_COUNT][height];
+		this.numbers = new long[height];
+
+		// all tiles start out unknown
+		Arrays.fill (this.masks[NONE], (width == MAXIMUM_WIDTH ? -1L : ((1L << width) - 1)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void copyFrom (@NonNull PackedChunk chunk) {
+		super.copyFrom (chunk);
+
+		// rebuild masks of other implementations from their codes
+		if (!(chunk instanceof BitboardChunk)) {
+			this.rebuildMasks ();
+			return;
+		}
+
+		// copy masks
+		for (int code = 0; code < this.masks.length; code++) System.arraycopy (((BitboardChunk) chunk).masks[code], 0, this.masks[code], 0, this.getHeight ());
+		System.arraycopy (((BitboardChunk) chunk).numbers, 0, this.numbers, 0, this.getHeight ());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int countNeighbors (short x, short y, TileCounter.TileType type) {
+		// use counters
+		if (type == TileCounter.TileType.BLANK || type == TileCounter.TileType.FLAG) return super.countNeighbors (x, y, type);
+
+		// count
+		long[] rows = this.getMask (type);
+		long window = (x > 0 ? (7L << (x - 1)) : 3L);
+
+		int count = Long.bitCount ((rows[y] & window & ~(1L << x)));
+		if (y > 0) count += Long.bitCount ((rows[(y - 1)] & window));
+		if (y < (this.getHeight () - 1)) count += Long.bitCount ((rows[(y + 1)] & window));
+
+		return count;
+	}
+
+	/**
+	 * Returns the row masks of a tile type.
+	 * @param type The tile type.
+	 * @return The masks.
+	 */
+	protected long[] getMask (TileCounter.TileType type) {
+		switch (type) {
+			case BOMB:
+				return this.masks[BOMB];
+			case BLANK:
+				return this.masks[UNTOUCHED];
+			case NUMBER:
+				return this.numbers;
+			case FLAG:
+				return this.masks[FLAGGED];
+		}
+
+		throw new IllegalArgumentException ("Unknown tile type " + type + ".");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public NumberTile[] getNumberTiles () {
+		// count number tiles
+		int count = 0;
+		for (long row : this.numbers) count += Long.bitCount (row);
+
+		// materialize
+		NumberTile[] tiles = new NumberTile[count];
+		int i = 0;
+
+		for (int y = 0; y < this.getHeight (); y++) {
+			for (long row = this.numbers[y]; row != 0; row &= (row - 1)) tiles[i++] = ((NumberTile) this.createTile (((y * this.getWidth ()) + Long.numberOfTrailingZeros (row))));
+		}
+
+		return tiles;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isBlank () {
+		int count = 0;
+		for (long row : this.masks[UNTOUCHED]) count += Long.bitCount (row);
+
+		return (count > BLANK_THRESHOLD);
+	}
+
+	/**
+	 * Re-calculates all masks from the tile codes.
+	 */
+	protected void rebuildMasks () {
+		for (long[] rows : this.masks) Arrays.fill (rows, 0L);
+		Arrays.fill (this.numbers, 0L);
+
+		for (short y = 0; y < this.getHeight (); y++) {
+			for (short x = 0; x < this.getWidth (); x++) {
+				byte code = this.getCode (x, y);
+
+				this.masks[code][y] |= (1L << x);
+				if (code >= NUMBER) this.numbers[y] |= (1L << x);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reset () {
+		super.reset ();
+		this.rebuildMasks ();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setCode (short x, short y, byte code) {
+		byte previous = this.getCode (x, y);
+		super.setCode (x, y, code);
+
+		// move tile between masks
+		long bit = (1L << x);
+
+		this.masks[previous][y] &= ~bit;
+		this.masks[code][y] |= bit;
+
+		if (previous >= NUMBER) this.numbers[y] &= ~bit;
+		if (code >= NUMBER) this.numbers[y] |= bit;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+/**
+ * Defines how the game board is read from the browser.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public enum CaptureMode {
+
+	/**
+	 * Decodes a screenshot of the whole page.
+	 */
+	SCREENSHOT,
+
+	/**
+	 * Extracts the sample pixels of all cells within the browser (falls back to screenshots if the board cannot be read).
+	 */
+	SCRIPT,
+
+	/**
+	 * Keeps the newest in-browser fingerprint frame in a single slot which is fetched on update (falls back to script
+	 * capture if no frame was captured since the last action).
+	 */
+	STREAM;
+}
\ No newline at end of file
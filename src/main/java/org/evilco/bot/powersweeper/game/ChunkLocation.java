@@ -59,6 +59,45 @@ public class ChunkLocation {
 		return (new ChunkLocation (x, y));
 	}
 
+	/**
+	 * Returns the packed key of this location.
+	 * @return The key.
+	 */
+	public long getKey () {
+		return getKey (this.x, this.y);
+	}
+
+	/**
+	 * Packs a pair of coordinates into a single key.
+	 *
+	 * Both coordinates are truncated to 32 bits. Keys are used for chunk coordinates as well as world tile
+	 * coordinates.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return The key.
+	 */
+	public static long getKey (long x, long y) {
+		return ((x << 32) | (y & 0xFFFFFFFFL));
+	}
+
+	/**
+	 * Extracts the X-Coordinate of a packed key.
+	 * @param key The key.
+	 * @return The X-Coordinate.
+	 */
+	public static long getKeyX (long key) {
+		return (key >> 32);
+	}
+
+	/**
+	 * Extracts the Y-Coordinate of a packed key.
+	 * @param key The key.
+	 * @return The Y-Coordinate.
+	 */
+	public static long getKeyY (long key) {
+		return ((int) key);
+	}
+
 	/**
 	 * Gets a relative chunk location.
 	 * @param x The X-Offset.
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileParser;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reads and writes chunk snapshots from and to channels.
+ *
+ * Each snapshot consists of a header (magic, version, chunk size and location) followed by the tile codes of the
+ * chunk packed into nibbles (the same layout the world store uses for its records). A 20x20 chunk thus takes 225
+ * bytes. Snapshots are self-contained and may simply be appended to each other in order to build a corpus which is
+ * read back by calling {@link #read(ReadableByteChannel)} until it returns null.
+ * Snapshots of chunks exceeding {@link #MAXIMUM_SIZE} tiles in either direction are rejected when reading.
+ *
+ * Instances re-use a single buffer and are not thread-safe.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class ChunkSnapshotCodec {
+
+	/**
+	 * Defines the size of the snapshot header.
+	 */
+	public static final int HEADER_SIZE = 25;
+
+	/**
+	 * Defines the magic number which identifies chunk snapshots ("PSCS").
+	 */
+	public static final int MAGIC = 0x50534353;
+
+	/**
+	 * Defines the maximum width and height of snapshot chunks (the widest chunk any chunk implementation supports).
+	 */
+	public static final int MAXIMUM_SIZE = BitboardChunk.MAXIMUM_WIDTH;
+
+	/**
+	 * Defines the snapshot format version.
+	 */
+	public static final byte VERSION = 1;
+
+	/**
+	 * Stores the buffer used for encoding and decoding snapshots.
+	 */
+	private ByteBuffer buffer = ByteBuffer.allocate (HEADER_SIZE);
+
+	/**
+	 * Stores the tile parser used for materializing tiles of decoded chunks.
+	 */
+	@Getter
+	private final ITileParser parser;
+
+	/**
+	 * Constructs a new ChunkSnapshotCodec instance.
+	 * @param parser The tile parser.
+	 */
+	public ChunkSnapshotCodec (@NonNull ITileParser parser) {
+		this.parser = parser;
+	}
+
+	/**
+	 * Fills the buffer from a channel.
+	 * @param channel The channel.
+	 * @return False if the channel ended before any byte was read.
+	 * @throws IOException Occurs if the channel ended within the buffer or cannot be read.
+	 */
+	protected boolean fill (ReadableByteChannel channel) throws IOException {
+		while (this.buffer.hasRemaining ()) {
+			if (channel.read (this.buffer) >= 0) continue;
+
+			if (this.buffer.position () == 0) return false;
+			throw new EOFException ("Chunk snapshot ends after " + this.buffer.position () + " bytes.");
+		}
+
+		this.buffer.flip ();
+		return true;
+	}
+
+	/**
+	 * Prepares the buffer for a certain amount of bytes.
+	 * @param size The amount of bytes.
+	 */
+	protected void prepare (int size) {
+		if (this.buffer.capacity () < size) this.buffer = ByteBuffer.allocate (size);
+
+		this.buffer.clear ();
+		this.buffer.limit (size);
+	}
+
+	/**
+	 * Reads the next snapshot from a channel.
+	 * @param channel The channel.
+	 * @return The chunk (or null if the channel ended).
+	 * @throws IOException Occurs if the channel does not contain a valid snapshot or cannot be read.
+	 */
+	public PackedChunk read (@NonNull ReadableByteChannel channel) throws IOException {
+		// read header
+		this.prepare (HEADER_SIZE);
+		if (!this.fill (channel)) return null;
+
+		if (this.buffer.getInt () != MAGIC) throw new IOException ("Channel does not contain a chunk snapshot.");
+
+		byte version = this.buffer.get ();
+		if (version != VERSION) throw new IOException ("Unsupported chunk snapshot version " + version + ".");
+
+		short width = this.buffer.getShort ();
+		short height = this.buffer.getShort ();
+		if (width <= 0 || height <= 0 || width > MAXIMUM_SIZE || height > MAXIMUM_SIZE) throw new IOException ("Invalid chunk size " + width + "x" + height + ".");
+
+		PackedChunk chunk = new PackedChunk (width, height, new ChunkLocation (this.buffer.getLong (), this.buffer.getLong ()), this.parser);
+
+		// read tiles
+		this.prepare (PackedChunk.getPackedSize (width, height));
+		if (!this.fill (channel)) throw new EOFException ("Chunk snapshot ends after its header.");
+
+		try {
+			chunk.unpack (this.buffer);
+		} catch (IllegalArgumentException ex) {
+			throw new IOException ("Chunk snapshot is corrupted: " + ex.getMessage (), ex);
+		}
+
+		return chunk;
+	}
+
+	/**
+	 * Writes a snapshot of a chunk to a channel.
+	 * @param channel The channel.
+	 * @param chunk The chunk.
+	 * @throws IOException Occurs if the channel cannot be written.
+	 * @throws IllegalArgumentException Occurs if the chunk exceeds {@link #MAXIMUM_SIZE}.
+	 */
+	public void write (@NonNull WritableByteChannel channel, @NonNull IChunk chunk) throws IOException {
+		if (chunk.getWidth () > MAXIMUM_SIZE || chunk.getHeight () > MAXIMUM_SIZE) throw new IllegalArgumentException ("Chunk snapshots may not exceed " + MAXIMUM_SIZE + "x" + MAXIMUM_SIZE + " tiles.");
+
+		// convert other chunk types
+		PackedChunk packed;
+
+		if (chunk instanceof PackedChunk)
+			packed = ((PackedChunk) chunk);
+		else {
+			packed = new PackedChunk (chunk.getWidth (), chunk.getHeight (), chunk.getLocation (), this.parser);
+
+			for (short y = 0; y < chunk.getHeight (); y++) {
+				for (short x = 0; x < chunk.getWidth (); x++) packed.setTile (x, y, chunk.getTile (x, y));
+			}
+		}
+
+		// encode
+		this.prepare ((HEADER_SIZE + PackedChunk.getPackedSize (packed.getWidth (), packed.getHeight ())));
+
+		this.buffer.putInt (MAGIC);
+		this.buffer.put (VERSION);
+		this.buffer.putShort (packed.getWidth ());
+		this.buffer.putShort (packed.getHeight ());
+		this.buffer.putLong (packed.getLocation ().getX ());
+		this.buffer.putLong (packed.getLocation ().getY ());
+		packed.pack (this.buffer);
+
+		// write
+		this.buffer.flip ();
+		while (this.buffer.hasRemaining ()) channel.write (this.buffer);
+	}
+}
\ No newline at end of file
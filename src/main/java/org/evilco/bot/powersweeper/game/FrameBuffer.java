@@ -0,0 +1,215 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.evilco.bot.powersweeper.game.tile.parser.image.ImageTileTemplate;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.color.ColorSpace;
+import java.awt.image.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Stores the most recent screenshot in a long-lived pixel array.
+ *
+ * Screenshots are decoded into a re-used image of the native PNG layout and converted into packed ARGB pixels in a
+ * single pass afterwards. Both buffers are only re-allocated when the screenshot size or layout changes. Tiles are
+ * handed out as views of the pixel array.
+ *
+ * Frames may also be decoded partially in which case only the pixels within the passed region are replaced.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class FrameBuffer {
+
+	/**
+	 * Stores the image the reader decodes into (or null if the current layout is not supported).
+	 */
+	private BufferedImage decoded = null;
+
+	/**
+	 * Stores the layout of the decoded image.
+	 */
+	private ImageTypeSpecifier decodedType = null;
+
+	/**
+	 * Stores the frame height.
+	 */
+	@Getter
+	private int height = 0;
+
+	/**
+	 * Stores all pixels (packed ARGB in row-major order).
+	 */
+	@Getter
+	private int[] pixels = new int[0];
+
+	/**
+	 * Stores the PNG reader.
+	 */
+	private final ImageReader reader;
+
+	/**
+	 * Stores the frame width.
+	 */
+	@Getter
+	private int width = 0;
+
+	/**
+	 * Constructs a new FrameBuffer instance.
+	 */
+	public FrameBuffer () {
+		this.reader = ImageIO.getImageReadersByFormatName ("png").next ();
+	}
+
+	/**
+	 * Decodes a new frame.
+	 * @param data The PNG encoded screenshot.
+	 * @throws IOException Occurs if the screenshot cannot be decoded.
+	 */
+	public void decode (@NonNull byte[] data) throws IOException {
+		this.decode (data, null);
+	}
+
+	/**
+	 * Decodes a region of a new frame (pixels outside of the region are kept).
+	 * @param data The PNG encoded screenshot.
+	 * @param region The region (or null to decode the whole frame).
+	 * @throws IOException Occurs if the screenshot cannot be decoded.
+	 */
+	public void decode (@NonNull byte[] data, Rectangle region) throws IOException {
+		ImageInputStream input = ImageIO.createImageInputStream (new ByteArrayInputStream (data));
+
+		try {
+			this.reader.setInput (input, true, true);
+
+			// re-allocate buffers if needed
+			this.prepare (this.reader.getWidth (0), this.reader.getHeight (0), this.reader.getRawImageType (0));
+
+			// clip region
+			Rectangle bounds = new Rectangle (0, 0, this.width, this.height);
+			region = (region != null ? region.intersection (bounds) : bounds);
+			if (region.isEmpty ()) return;
+
+			// prepare parameters (the reader stops once the region has been decoded)
+			ImageReadParam parameters = this.reader.getDefaultReadParam ();
+			parameters.setSourceRegion (region);
+
+			// decode unsupported layouts through the generic (and slower) path
+			if (this.decoded == null) {
+				this.reader.read (0, parameters).getRGB (0, 0, region.width, region.height, this.pixels, ((region.y * this.width) + region.x), this.width);
+				return;
+			}
+
+			// decode into re-used image
+			parameters.setDestination (this.decoded);
+			parameters.setDestinationOffset (region.getLocation ());
+			this.reader.read (0, parameters);
+
+			// convert into packed pixels
+			this.convert (region);
+		} finally {
+			this.reader.setInput (null);
+			input.close ();
+		}
+	}
+
+	/**
+	 * Converts a region of the decoded image into packed ARGB pixels.
+	 * @param region The region.
+	 */
+	protected void convert (Rectangle region) {
+		PixelInterleavedSampleModel sampleModel = ((PixelInterleavedSampleModel) this.decoded.getSampleModel ());
+		byte[] data = ((DataBufferByte) this.decoded.getRaster ().getDataBuffer ()).getData ();
+
+		// get layout
+		int[] bandOffsets = sampleModel.getBandOffsets ();
+		int pixelStride = sampleModel.getPixelStride ();
+		int scanlineStride = sampleModel.getScanlineStride ();
+		boolean alpha = (bandOffsets.length == 4);
+
+		// convert
+		for (int y = region.y; y < (region.y + region.height); y++) {
+			int source = ((y * scanlineStride) + (region.x * pixelStride));
+			int target = (y * this.width);
+
+			for (int x = region.x; x < (region.x + region.width); x++, source += pixelStride) {
+				this.pixels[(target + x)] = ((alpha ? ((data[(source + bandOffsets[3])] & 0xFF) << 24) : 0xFF000000) | ((data[(source + bandOffsets[0])] & 0xFF) << 16) | ((data[(source + bandOffsets[1])] & 0xFF) << 8) | (data[(source + bandOffsets[2])] & 0xFF));
+			}
+		}
+	}
+
+	/**
+	 * Returns a view of a rectangular region within the current frame.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @param width The width.
+	 * @param height The height.
+	 * @return The tile.
+	 */
+	public ImageTileTemplate getTile (int x, int y, int width, int height) {
+		if ((x + width) > this.width || (y + height) > this.height) throw new IllegalArgumentException ("Tile exceeds the bounds of the current frame.");
+		return new ImageTileTemplate (this.pixels, ((y * this.width) + x), this.width, width, height, null);
+	}
+
+	/**
+	 * Checks whether an image layout can be converted directly.
+	 * @param image The image.
+	 * @return True if the layout is supported.
+	 */
+	protected static boolean isSupported (BufferedImage image) {
+		if (!(image.getSampleModel () instanceof PixelInterleavedSampleModel)) return false;
+		if (!(image.getRaster ().getDataBuffer () instanceof DataBufferByte)) return false;
+		if (!(image.getColorModel () instanceof ComponentColorModel)) return false;
+		if (image.getColorModel ().getColorSpace ().getType () != ColorSpace.TYPE_RGB) return false;
+
+		int bands = image.getSampleModel ().getNumBands ();
+		return (bands == 3 || (bands == 4 && image.getColorModel ().hasAlpha () && !image.getColorModel ().isAlphaPremultiplied ()));
+	}
+
+	/**
+	 * Prepares the buffers for a frame.
+	 * @param width The frame width.
+	 * @param height The frame height.
+	 * @param type The native image layout (if known).
+	 */
+	protected void prepare (int width, int height, ImageTypeSpecifier type) {
+		// re-allocate pixels
+		if (this.pixels.length != (width * height)) this.pixels = new int[(width * height)];
+
+		// re-allocate decoded image
+		if (this.width != width || this.height != height || this.decodedType == null || !this.decodedType.equals (type)) {
+			this.decoded = (type != null ? type.createBufferedImage (width, height) : null);
+			this.decodedType = type;
+
+			// skip unsupported layouts
+			if (this.decoded != null && !isSupported (this.decoded)) this.decoded = null;
+		}
+
+		// store size
+		this.width = width;
+		this.height = height;
+	}
+}
\ No newline at end of file
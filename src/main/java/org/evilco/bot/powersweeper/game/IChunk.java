@@ -16,6 +16,8 @@
 package org.evilco.bot.powersweeper.game;
 
 import org.evilco.bot.powersweeper.game.tile.ITile;
+import org.evilco.bot.powersweeper.game.tile.generic.NumberTile;
+import org.evilco.bot.powersweeper.game.tile.parser.TileCounter;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
@@ -23,6 +25,34 @@ import org.evilco.bot.powersweeper.game.tile.ITile;
  */
 public interface IChunk {
 
+	/**
+	 * Counts the neighbors of a tile which are of a certain type.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @param type The tile type.
+	 * @return The amount of matching neighbors.
+	 */
+	public int countNeighbors (short x, short y, TileCounter.TileType type);
+
+	/**
+	 * Finds the first number tile of a certain value.
+	 * @param number The number to look for.
+	 * @return The tile or null.
+	 */
+	public NumberTile findNumberTile (short number);
+
+	/**
+	 * Finds a number tile with a lot of untouched neighbors to start exploring from.
+	 * @return The tile or null.
+	 */
+	public NumberTile findViableExplorationTile ();
+
+	/**
+	 * Returns all number tiles which have at least one untouched neighbor.
+	 * @return The tiles.
+	 */
+	public NumberTile[] getFrontierTiles ();
+
 	/**
 	 * Returns the chunk height.
 	 * @return The height.
@@ -35,6 +65,20 @@ public interface IChunk {
 	 */
 	public ChunkLocation getLocation ();
 
+	/**
+	 * Returns the amount of neighbors of a tile (which is less than eight for tiles on the chunk border).
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return The amount of neighbors.
+	 */
+	public int getNeighborCount (short x, short y);
+
+	/**
+	 * Returns all number tiles.
+	 * @return The tiles.
+	 */
+	public NumberTile[] getNumberTiles ();
+
 	/**
 	 * Returns a tile.
 	 * @param x The X-Coordinate.
@@ -48,4 +92,36 @@ public interface IChunk {
 	 * @return The width.
 	 */
 	public short getWidth ();
+
+	/**
+	 * Checks whether the chunk consists mostly of untouched tiles.
+	 * @return True if the chunk is mostly untouched.
+	 */
+	public boolean isBlank ();
+
+	/**
+	 * Checks whether a tile is of a certain type.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @param type The tile type.
+	 * @return True if the tile matches.
+	 */
+	public boolean isTileType (short x, short y, TileCounter.TileType type);
+
+	/**
+	 * Sets a new tile.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @param tile The new tile (or null if unknown).
+	 */
+	public void setTile (short x, short y, ITile tile);
+
+	/**
+	 * Visits all neighbors of a tile (in row-major order).
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @param visitor The visitor.
+	 * @return False if the visitor stopped early.
+	 */
+	public boolean visitNeighbors (short x, short y, INeighborVisitor visitor);
 }
\ No newline at end of file
@@ -26,18 +26,43 @@ import java.util.ArrayList;
  */
 public interface IGameInterface {
 
+	/**
+	 * Waits until the game state may be updated again (at most for the given amount of time).
+	 * @param timeout The maximum wait time (in milliseconds).
+	 * @throws InterruptedException Occurs if the thread is interrupted while waiting.
+	 */
+	public void awaitFrame (long timeout) throws InterruptedException;
+
+	/**
+	 * Writes all persisted state to disk and releases the files held by the interface.
+	 */
+	public void close ();
+
 	/**
 	 * Flags a tile.
 	 * @param location The tile location.
 	 */
 	public void flagTile (TileLocation location);
 
+	/**
+	 * Collects all tiles of the current chunk which changed during the last update.
+	 * @param changes The array to store the cell indices in (needs to hold one entry per tile).
+	 * @return The amount of changed tiles (all known tiles if the chunk was entered during the last update).
+	 */
+	public int getChanges (int[] changes);
+
 	/**
 	 * Returns the underlying chunk.
 	 * @return The chunk.
 	 */
 	public IChunk getChunk ();
 
+	/**
+	 * Returns the map of all chunks seen so far.
+	 * @return The map.
+	 */
+	public WorldMap getWorldMap ();
+
 	/**
 	 * Moves the interface to a new chunk.
 	 * @param location The chunk location.
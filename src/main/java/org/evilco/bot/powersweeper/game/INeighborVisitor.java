@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+/**
+ * Receives the neighbors of a tile.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public interface INeighborVisitor {
+
+	/**
+	 * Visits a single neighbor.
+	 * @param chunk The chunk the neighbor is located in.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return True to continue with the next neighbor, false to stop.
+	 */
+	public boolean visit (IChunk chunk, short x, short y);
+}
\ No newline at end of file
@@ -15,43 +15,20 @@
 
 package org.evilco.bot.powersweeper.game;
 
-import lombok.Getter;
 import lombok.NonNull;
 import org.evilco.bot.powersweeper.game.tile.ITile;
-import org.evilco.bot.powersweeper.game.tile.generic.NumberTile;
-import org.evilco.bot.powersweeper.game.tile.parser.TileCounter;
-
-import java.util.ArrayList;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-public class MatrixChunk implements IChunk {
-
-	/**
-	 * Stores the chunk height.
-	 */
-	@Getter
-	private final short height;
-
-	/**
-	 * Stores the chunk location.
-	 */
-	@Getter
-	private final ChunkLocation location;
+public class MatrixChunk extends AbstractChunk {
 
 	/**
 	 * Stores all tiles.
 	 */
 	private ITile[][] tiles;
 
-	/**
-	 * Stores the chunk width.
-	 */
-	@Getter
-	private final short width;
-
 	/**
 	 * Constructs a new MatrixChunk instance.
 	 * @param width The width.
@@ -59,9 +36,7 @@ public class MatrixChunk implements IChunk {
 	 * @param location The location.
 	 */
 	public MatrixChunk (short width, short height, @NonNull ChunkLocation location) {
-		this.width = width;
-		this.height = height;
-		this.location = location;
+		super (width, height, location);
 
 		// reset
 		this.reset ();
@@ -79,77 +54,16 @@ public class MatrixChunk implements IChunk {
 	 * Resets the chunk.
 	 */
 	public void reset () {
-		this.tiles = new ITile[this.height][];
+		this.tiles = new ITile[this.getHeight ()][];
 
-		for (short y = 0; y < this.height; y++) this.tiles[y] = new ITile[this.width];
+		for (short y = 0; y < this.getHeight (); y++) this.tiles[y] = new ITile[this.getWidth ()];
 	}
 
 	/**
-	 * Sets a new tile.
-	 * @param x The X-Coordinate.
-	 * @param y The Y-Coordinate.
-	 * @param tile The new tile.
+	 * {@inheritDoc}
 	 */
+	@Override
 	public void setTile (short x, short y, ITile tile) {
 		this.tiles[y][x] = tile;
 	}
-
-    /**
-     * Checks to see if the screen is blank (or untouched).
-     * @return true if the screen is mostly untouched tiles.
-     */
-    public boolean isBlank() {
-        int count = 0;
-        for (ITile[] arr : tiles) {
-           count += TileCounter.getCount(arr, TileCounter.TileType.BLANK);
-        }
-        return count > 250;
-    }
-
-    public NumberTile[] getNumberTiles() {
-        ArrayList<NumberTile> toReturn = new ArrayList<>();
-        for (ITile[] arr : tiles) {
-            for (ITile i : arr) {
-                if (i instanceof NumberTile) {
-                    toReturn.add((NumberTile)i);
-                }
-            }
-        }
-        return toReturn.toArray(new NumberTile[toReturn.size()]);
-    }
-
-    /**
-     * Finds the nearest number tile.
-     * @param number The number to look for.
-     * @return The tile if found, or null.
-     */
-    public NumberTile findNumberTile(short number) {
-        NumberTile[] numberTiles = getNumberTiles();
-        if (numberTiles.length > 0) {
-            for (NumberTile t : numberTiles) {
-                if (t.getValue() == number) return t;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * This method finds a viable number tile to start clicking neighbors of.
-     *
-     * Usually, this can be a "1" square with a bunch of blank neighbors to try clicking.
-     *
-     * @return A viable exploration tile, or null.
-     */
-    public NumberTile findViableExplorationTile() {
-        NumberTile[] numberTiles = getNumberTiles();
-        if (numberTiles.length > 0) {
-           for (NumberTile nt : numberTiles) {
-              ITile[] neighbors = nt.getLocation().getNeighbors();
-               if (neighbors.length > 5 && nt.getValue() < 4 && TileCounter.getCount(neighbors, TileCounter.TileType.BLANK) > 4) {
-                   return nt;
-               }
-           }
-        }
-        return null;
-    }
 }
\ No newline at end of file
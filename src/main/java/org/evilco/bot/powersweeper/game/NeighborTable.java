@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the cell indices of all neighbors within a chunk of a certain size.
+ *
+ * Neighbors are stored in a single flat array (in row-major order per cell) with cells on the chunk border simply
+ * having fewer entries. Tables are immutable and shared between all chunks of the same size.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class NeighborTable {
+
+	/**
+	 * Stores all tables indexed by chunk size.
+	 */
+	private static final Map<Integer, NeighborTable> TABLES = new ConcurrentHashMap<> ();
+
+	/**
+	 * Stores the chunk height.
+	 */
+	@Getter
+	private final short height;
+
+	/**
+	 * Stores the neighbor indices of all cells.
+	 */
+	private final int[] neighbors;
+
+	/**
+	 * Stores the position of the first neighbor of each cell (followed by the end of the last cell).
+	 */
+	private final int[] offsets;
+
+	/**
+	 * Stores the chunk width.
+	 */
+	@Getter
+	private final short width;
+
+	/**
+	 * Constructs a new NeighborTable instance.
+	 * @param width The chunk width.
+	 * @param height The chunk height.
+	 */
+	protected NeighborTable (short width, short height) {
+		this.width = width;
+		this.height = height;
+
+		this.offsets = new int[((width * height) + 1)];
+		int[] neighbors = new int[((width * height) * 8)];
+		int position = 0;
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				this.offsets[((y * width) + x)] = position;
+
+				for (int neighborY = (y - 1); neighborY <= (y + 1); neighborY++) {
+					for (int neighborX = (x - 1); neighborX <= (x + 1); neighborX++) {
+						if (neighborX == x && neighborY == y) continue;
+						if (neighborX < 0 || neighborY < 0 || neighborX >= width || neighborY >= height) continue;
+
+						neighbors[position++] = ((neighborY * width) + neighborX);
+					}
+				}
+			}
+		}
+
+		this.offsets[(width * height)] = position;
+		this.neighbors = new int[position];
+		System.arraycopy (neighbors, 0, this.neighbors, 0, position);
+	}
+
+	/**
+	 * Returns the amount of neighbors of a cell.
+	 * @param index The cell index.
+	 * @return The amount of neighbors.
+	 */
+	public int getCount (int index) {
+		return (this.offsets[(index + 1)] - this.offsets[index]);
+	}
+
+	/**
+	 * Returns the position after the last neighbor of a cell.
+	 * @param index The cell index.
+	 * @return The position.
+	 */
+	public int getEnd (int index) {
+		return this.offsets[(index + 1)];
+	}
+
+	/**
+	 * Returns the table for a certain chunk size.
+	 * @param width The chunk width.
+	 * @param height The chunk height.
+	 * @return The table.
+	 */
+	public static NeighborTable getInstance (short width, short height) {
+		Integer key = ((width << 16) | (height & 0xFFFF));
+		NeighborTable table = TABLES.get (key);
+
+		if (table == null) {
+			table = new NeighborTable (width, height);
+			TABLES.put (key, table);
+		}
+
+		return table;
+	}
+
+	/**
+	 * Returns the cell index of a neighbor.
+	 * @param position The position (between {@link #getStart(int)} and {@link #getEnd(int)}).
+	 * @return The cell index.
+	 */
+	public int getNeighbor (int position) {
+		return this.neighbors[position];
+	}
+
+	/**
+	 * Returns the position of the first neighbor of a cell.
+	 * @param index The cell index.
+	 * @return The position.
+	 */
+	public int getStart (int index) {
+		return this.offsets[index];
+	}
+}
\ No newline at end of file
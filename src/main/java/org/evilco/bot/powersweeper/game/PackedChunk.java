@@ -0,0 +1,472 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.evilco.bot.powersweeper.game.tile.ITile;
+import org.evilco.bot.powersweeper.game.tile.TileLocation;
+import org.evilco.bot.powersweeper.game.tile.generic.*;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileFactory;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileParser;
+import org.evilco.bot.powersweeper.game.tile.parser.TileCounter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores the tiles of a chunk as a flat array of single byte codes.
+ *
+ * Tile instances are only created when they are requested (and are never stored) which keeps the chunk at a single
+ * byte per cell and allows whole-chunk scans to work on the codes directly. As materialized tiles are created anew on
+ * every call, they have to be compared by value rather than identity.
+ *
+ * Additionally the amount of untouched and flagged neighbors is kept for every cell. Both counters are updated along
+ * with the cell codes which turns the respective neighbor counts into a single lookup. The same updates maintain the
+ * frontier (number tiles with at least one untouched neighbor) as a bit set which can be iterated without looking at
+ * any other tile.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class PackedChunk extends AbstractChunk {
+
+	/**
+	 * Defines the code of unknown cells.
+	 */
+	public static final byte NONE = 0;
+
+	/**
+	 * Defines the code of cells which are still waiting for the server.
+	 */
+	public static final byte WAITING = 1;
+
+	/**
+	 * Defines the code of untouched cells.
+	 */
+	public static final byte UNTOUCHED = 2;
+
+	/**
+	 * Defines the code of flagged cells.
+	 */
+	public static final byte FLAGGED = 3;
+
+	/**
+	 * Defines the code of revealed bombs.
+	 */
+	public static final byte BOMB = 4;
+
+	/**
+	 * Defines the code of number cells (the number value is added to this code).
+	 */
+	public static final byte NUMBER = 5;
+
+	/**
+	 * Defines the amount of distinct codes.
+	 */
+	public static final byte CODE_COUNT = (NUMBER + NumberTile.MAXIMUM_VALUE + 1);
+
+	/**
+	 * Stores the codes indexed by template name.
+	 */
+	private static final Map<String, Byte> CODES;
+
+	/**
+	 * Stores the tile factories indexed by code.
+	 */
+	private static final ITileFactory[] FACTORIES;
+
+	/**
+	 * Stores the template names indexed by code.
+	 */
+	private static final String[] TEMPLATES;
+
+	/**
+	 * Stores the codes of all cells (in row-major order).
+	 */
+	private final byte[] codes;
+
+	/**
+	 * Stores the amount of flagged neighbors of all cells.
+	 */
+	private final byte[] flaggedNeighbors;
+
+	/**
+	 * Stores the frontier (one bit per cell).
+	 */
+	private final long[] frontier;
+
+	/**
+	 * Stores the amount of tiles within the frontier.
+	 */
+	private int frontierSize = 0;
+
+	/**
+	 * Stores the parser used for materializing tiles.
+	 */
+	@Getter
+	private final ITileParser parser;
+
+	/**
+	 * Stores the amount of untouched neighbors of all cells.
+	 */
+	private final byte[] untouchedNeighbors;
+
+	/**
+	 * Static Initializer
+	 */
+	static {
+		FACTORIES = new ITileFactory[CODE_COUNT];
+		TEMPLATES = new String[FACTORIES.length];
+
+		FACTORIES[WAITING] = WaitingTile.FACTORY;
+		TEMPLATES[WAITING] = "waiting";
+		FACTORIES[UNTOUCHED] = UntouchedTile.FACTORY;
+		TEMPLATES[UNTOUCHED] = "untouched";
+		FACTORIES[FLAGGED] = FlaggedTile.FACTORY;
+		TEMPLATES[FLAGGED] = "flagged";
+		FACTORIES[BOMB] = BombTile.FACTORY;
+		TEMPLATES[BOMB] = "bomb";
+
+		for (short i = 0; i <= NumberTile.MAXIMUM_VALUE; i++) {
+			FACTORIES[(NUMBER + i)] = NumberTile.getFactory (i);
+			TEMPLATES[(NUMBER + i)] = "number-" + i;
+		}
+
+		CODES = new HashMap<> ();
+		for (byte code = WAITING; code < CODE_COUNT; code++) CODES.put (TEMPLATES[code], code);
+	}
+
+	/**
+	 * Constructs a new PackedChunk instance.
+	 * @param width The width.
+	 * @param height The height.
+	 * @param location The location.
+	 * @param parser The parser used for materializing tiles.
+	 */
+	public PackedChunk (short width, short height, @NonNull ChunkLocation location, @NonNull ITileParser parser) {
+		super (width, height, location);
+
+		this.codes = new byte[(width * height)];
+		this.flaggedNeighbors = new byte[(width * height)];
+		this.frontier = new long[((((width * height) - 1) >> 6) + 1)];
+		this.untouchedNeighbors = new byte[(width * height)];
+		this.parser = parser;
+	}
+
+	/**
+	 * Copies all tiles of another chunk of the same size.
+	 * @param chunk The chunk.
+	 */
+	public void copyFrom (@NonNull PackedChunk chunk) {
+		if (chunk.getWidth () != this.getWidth () || chunk.getHeight () != this.getHeight ()) throw new IllegalArgumentException ("Cannot copy tiles between chunks of different sizes.");
+
+		System.arraycopy (chunk.codes, 0, this.codes, 0, this.codes.length);
+		System.arraycopy (chunk.flaggedNeighbors, 0, this.flaggedNeighbors, 0, this.flaggedNeighbors.length);
+		System.arraycopy (chunk.frontier, 0, this.frontier, 0, this.frontier.length);
+		System.arraycopy (chunk.untouchedNeighbors, 0, this.untouchedNeighbors, 0, this.untouchedNeighbors.length);
+		this.frontierSize = chunk.frontierSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int countNeighbors (short x, short y, TileCounter.TileType type) {
+		int index = ((y * this.getWidth ()) + x);
+
+		// use counters
+		if (type == TileCounter.TileType.BLANK) return this.untouchedNeighbors[index];
+		if (type == TileCounter.TileType.FLAG) return this.flaggedNeighbors[index];
+
+		// count
+		NeighborTable neighbors = this.getNeighbors ();
+		int count = 0;
+
+		for (int i = neighbors.getStart (index); i < neighbors.getEnd (index); i++) {
+			if (matches (this.codes[neighbors.getNeighbor (i)], type)) count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the code of a cell.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return The code.
+	 */
+	public byte getCode (short x, short y) {
+		return this.codes[((y * this.getWidth ()) + x)];
+	}
+
+	/**
+	 * Returns the code of a tile.
+	 * @param tile The tile (or null if unknown).
+	 * @return The code.
+	 */
+	public static byte getCode (ITile tile) {
+		if (tile == null) return NONE;
+		if (tile instanceof NumberTile) return ((byte) (NUMBER + ((NumberTile) tile).getValue ()));
+		if (tile instanceof WaitingTile) return WAITING;
+		if (tile instanceof UntouchedTile) return UNTOUCHED;
+		if (tile instanceof FlaggedTile) return FLAGGED;
+		if (tile instanceof BombTile) return BOMB;
+
+		throw new IllegalArgumentException ("Cannot encode tile of type " + tile.getClass ().getName () + ".");
+	}
+
+	/**
+	 * Returns the code of a template.
+	 * @param name The template name.
+	 * @return The code (or {@link #NONE} if no tile is known for the template).
+	 */
+	public static byte getCode (@NonNull String name) {
+		Byte code = CODES.get (name);
+		return (code != null ? code : NONE);
+	}
+
+	/**
+	 * Collects all cells which differ from another chunk of the same size.
+	 * @param chunk The chunk.
+	 * @param changes The array to store the cell indices in (needs to hold one entry per cell).
+	 * @return The amount of changed cells.
+	 */
+	public int diff (@NonNull PackedChunk chunk, @NonNull int[] changes) {
+		if (chunk.getWidth () != this.getWidth () || chunk.getHeight () != this.getHeight ()) throw new IllegalArgumentException ("Cannot compare chunks of different sizes.");
+
+		int count = 0;
+
+		for (int index = 0; index < this.codes.length; index++) {
+			if (this.codes[index] != chunk.codes[index]) changes[count++] = index;
+		}
+
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public NumberTile[] getFrontierTiles () {
+		NumberTile[] tiles = new NumberTile[this.frontierSize];
+		int i = 0;
+
+		for (int word = 0; word < this.frontier.length; word++) {
+			for (long bits = this.frontier[word]; bits != 0; bits &= (bits - 1)) tiles[i++] = ((NumberTile) this.createTile (((word << 6) + Long.numberOfTrailingZeros (bits))));
+		}
+
+		return tiles;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public NumberTile[] getNumberTiles () {
+		// count number cells
+		int count = 0;
+		for (byte code : this.codes) if (code >= NUMBER) count++;
+
+		// materialize
+		NumberTile[] tiles = new NumberTile[count];
+		int i = 0;
+
+		for (int index = 0; index < this.codes.length && i < count; index++) {
+			if (this.codes[index] >= NUMBER) tiles[i++] = ((NumberTile) this.createTile (index));
+		}
+
+		return tiles;
+	}
+
+	/**
+	 * Returns the amount of bytes needed for storing the codes of a chunk as nibbles.
+	 * @param width The chunk width.
+	 * @param height The chunk height.
+	 * @return The amount of bytes.
+	 */
+	public static int getPackedSize (short width, short height) {
+		return (((width * height) + 1) / 2);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ITile getTile (short x, short y) {
+		return this.createTile (((y * this.getWidth ()) + x));
+	}
+
+	/**
+	 * Creates a tile instance for a cell.
+	 * @param index The cell index.
+	 * @return The tile (or null if the cell is unknown).
+	 */
+	protected ITile createTile (int index) {
+		byte code = this.codes[index];
+		if (code == NONE) return null;
+
+		return FACTORIES[code].create (new TileLocation (((short) (index % this.getWidth ())), ((short) (index / this.getWidth ())), this), this.parser.getTemplate (TEMPLATES[code]), this.parser);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isBlank () {
+		int count = 0;
+		for (byte code : this.codes) if (code == UNTOUCHED) count++;
+
+		return (count > BLANK_THRESHOLD);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isTileType (short x, short y, TileCounter.TileType type) {
+		return matches (this.getCode (x, y), type);
+	}
+
+	/**
+	 * Checks whether a code is of a certain tile type.
+	 * @param code The code.
+	 * @param type The tile type.
+	 * @return True if the code matches.
+	 */
+	public static boolean matches (byte code, TileCounter.TileType type) {
+		switch (type) {
+			case BOMB:
+				return (code == BOMB);
+			case BLANK:
+				return (code == UNTOUCHED);
+			case NUMBER:
+				return (code >= NUMBER);
+			case FLAG:
+				return (code == FLAGGED);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Writes all codes into a buffer (two cells per byte with the lower nibble holding the first cell).
+	 * @param buffer The buffer (needs to hold at least {@link #getPackedSize(short, short)} remaining bytes).
+	 */
+	public void pack (@NonNull ByteBuffer buffer) {
+		for (int index = 0; index < this.codes.length; index += 2) {
+			int high = ((index + 1) < this.codes.length ? this.codes[(index + 1)] : NONE);
+			buffer.put (((byte) ((high << 4) | this.codes[index])));
+		}
+	}
+
+	/**
+	 * Resets the chunk.
+	 */
+	public void reset () {
+		Arrays.fill (this.codes, NONE);
+		Arrays.fill (this.flaggedNeighbors, ((byte) 0));
+		Arrays.fill (this.frontier, 0L);
+		this.frontierSize = 0;
+		Arrays.fill (this.untouchedNeighbors, ((byte) 0));
+	}
+
+	/**
+	 * Sets the code of a cell.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @param code The code.
+	 */
+	public void setCode (short x, short y, byte code) {
+		if (code < NONE || code >= CODE_COUNT) throw new IllegalArgumentException ("Invalid tile code " + code + ".");
+
+		int index = ((y * this.getWidth ()) + x);
+		byte previous = this.codes[index];
+		this.codes[index] = code;
+
+		// update counters
+		int flagged = ((code == FLAGGED ? 1 : 0) - (previous == FLAGGED ? 1 : 0));
+		int untouched = ((code == UNTOUCHED ? 1 : 0) - (previous == UNTOUCHED ? 1 : 0));
+
+		if (flagged != 0 || untouched != 0 || (previous >= NUMBER) != (code >= NUMBER)) this.update (index, flagged, untouched);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setTile (short x, short y, ITile tile) {
+		this.setCode (x, y, getCode (tile));
+	}
+
+	/**
+	 * Replaces all codes with codes read from a buffer (as written by {@link #pack(ByteBuffer)}).
+	 * @param buffer The buffer.
+	 * @throws IllegalArgumentException Occurs if the buffer contains an invalid code.
+	 */
+	public void unpack (@NonNull ByteBuffer buffer) {
+		this.reset ();
+
+		byte packed = 0;
+
+		for (int index = 0; index < this.codes.length; index++) {
+			if ((index & 1) == 0) packed = buffer.get ();
+
+			byte code = ((byte) ((index & 1) == 0 ? (packed & 0x0F) : ((packed >> 4) & 0x0F)));
+			if (code != NONE) this.setCode (((short) (index % this.getWidth ())), ((short) (index / this.getWidth ())), code);
+		}
+	}
+
+	/**
+	 * Updates the counters and frontier membership of a cell and all of its neighbors.
+	 *
+	 * Parser threads store distinct rows but share the neighbors of cells along their borders, so updates are
+	 * serialized.
+	 * @param index The cell index.
+	 * @param flagged The change of flagged tiles.
+	 * @param untouched The change of untouched tiles.
+	 */
+	protected synchronized void update (int index, int flagged, int untouched) {
+		NeighborTable neighbors = this.getNeighbors ();
+
+		for (int i = neighbors.getStart (index); i < neighbors.getEnd (index); i++) {
+			int neighbor = neighbors.getNeighbor (i);
+
+			this.flaggedNeighbors[neighbor] += flagged;
+			this.untouchedNeighbors[neighbor] += untouched;
+
+			if (untouched != 0) this.updateFrontier (neighbor);
+		}
+
+		this.updateFrontier (index);
+	}
+
+	/**
+	 * Adds a cell to or removes it from the frontier.
+	 * @param index The cell index.
+	 */
+	private void updateFrontier (int index) {
+		long bit = (1L << index);
+		boolean member = ((this.frontier[(index >> 6)] & bit) != 0);
+
+		if (member == (this.codes[index] >= NUMBER && this.untouchedNeighbors[index] > 0)) return;
+
+		this.frontier[(index >> 6)] ^= bit;
+		this.frontierSize += (member ? -1 : 1);
+	}
+}
\ No newline at end of file
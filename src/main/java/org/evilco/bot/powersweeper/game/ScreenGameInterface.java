@@ -15,6 +15,10 @@
 
 package org.evilco.bot.powersweeper.game;
 
+import com.google.common.base.Charsets;
+import com.google.common.cache.CacheStats;
+import com.google.common.io.Resources;
+import com.google.common.primitives.Ints;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
@@ -22,11 +26,11 @@ import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.evilco.bot.powersweeper.Powersweeper;
-import org.evilco.bot.powersweeper.game.tile.ITile;
 import org.evilco.bot.powersweeper.game.tile.TileLocation;
 import org.evilco.bot.powersweeper.game.tile.error.TileException;
-import org.evilco.bot.powersweeper.game.tile.generic.UntouchedTile;
 import org.evilco.bot.powersweeper.game.tile.parser.ITileParser;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileTemplate;
+import org.evilco.bot.powersweeper.game.tile.parser.image.FingerprintTileTemplate;
 import org.evilco.bot.powersweeper.game.tile.parser.image.ImageTileParser;
 import org.evilco.bot.powersweeper.game.tile.parser.image.ImageTileTemplate;
 import org.openqa.selenium.By;
@@ -36,18 +40,23 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Action;
 import org.openqa.selenium.interactions.Actions;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
+import java.awt.Rectangle;
+import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@RequiredArgsConstructor
 public class ScreenGameInterface implements IGameInterface {
 
     /**
@@ -60,21 +69,83 @@ public class ScreenGameInterface implements IGameInterface {
      */
     private static final int CELL_SIZE = 32;
 
+    /**
+     * Defines the chunk size (in cells).
+     */
+    public static final short CHUNK_SIZE = 20;
+
+    /**
+     * Defines the amount of cells around an action which are re-parsed during the following update.
+     */
+    public static final int CLIP_RADIUS = 2;
+
     /**
      * Defines the game URL template.
      */
     public static final String GAME_URL = "http://mienfield.com/%s_%s";
 
+    /**
+     * Defines the cell the cursor is moved to after each action (outside of the chunk so it does not cover any tile).
+     */
+    public static final short PARK_CELL = 30;
+
+    /**
+     * Defines the script used for hiding popups (installed once per page load so popups opened later on are hidden as
+     * well).
+     */
+    private static final String POPUP_SCRIPT = "$('<style>.popup { display: none !important; }</style>').appendTo('head');";
+
     /**
      * Defines the maximum amount of chunks to move when doing sane movements.
      */
     public static final int SANE_MOVEMENT_THRESHOLD = 5;
 
+    /**
+     * Defines the script used for fetching the newest streamed frame (values are only transferred if the frame was
+     * captured after the last mouse input).
+     */
+    private static final String STREAM_FETCH_SCRIPT = "var stream = window.powersweeperStream; if (!stream || !stream.running) return null; var fresh = (stream.frame != null && stream.frame.input == stream.input); return { fresh: fresh, values: (fresh ? stream.frame.values : null) };";
+
+    /**
+     * Defines the minimum interval between two streamed frames (in milliseconds).
+     */
+    public static final int STREAM_INTERVAL = 100;
+
+    /**
+     * Stores the region (in cells) affected by actions since the last update (or null if a full update is required).
+     */
+    private Rectangle clip = null;
+
+    /**
+     * Stores the pixel checksum each tile was last parsed from.
+     */
+    private long[] checksums = null;
+
+    /**
+     * Indicates whether a streamed frame captured after the last action has been fetched while waiting.
+     */
+    private boolean frameAvailable = false;
+
+    /**
+     * Stores the sample values of all cells extracted within the browser (or null if the screen was decoded instead).
+     */
+    private int[] fingerprints = null;
+
+    /**
+     * Stores the script used for extracting cell samples within the browser (or null if screenshots are used).
+     */
+    private final String fingerprintScript;
+
+    /**
+     * Stores the offsets of all sample pixels within a tile.
+     */
+    private final int[] samples = ImageTileParser.getSamples();
+
     /**
      * Stores the current chunk.
      */
     @Getter
-    private IChunk chunk = null;
+    private PackedChunk chunk = null;
 
     /**
      * Stores the current chunk location.
@@ -82,6 +153,18 @@ public class ScreenGameInterface implements IGameInterface {
     @Getter
     private ChunkLocation chunkLocation = null;
 
+    /**
+     * Stores the chunk as of the previous update (its buffer is re-used by the next update).
+     */
+    @Getter
+    private PackedChunk previousChunk = null;
+
+    /**
+     * Stores all chunks seen so far (backed by the world store if configured).
+     */
+    @Getter
+    private final WorldMap worldMap;
+
     /**
      * Stores the parent application instance.
      */
@@ -89,11 +172,17 @@ public class ScreenGameInterface implements IGameInterface {
     @NonNull
     private final Powersweeper powersweeper;
 
+    /**
+     * Stores the pool used for parsing tiles in parallel (if enabled).
+     */
+    @Getter
+    private final ForkJoinPool parserPool;
+
     /**
      * Stores the current screen.
      */
     @Getter
-    private BufferedImage screen = null;
+    private final FrameBuffer screen = new FrameBuffer();
 
     /**
      * Stores the tile parser.
@@ -101,7 +190,27 @@ public class ScreenGameInterface implements IGameInterface {
      * @todo Move this to core and make it replaceable.
      */
     @Getter
-    private ITileParser tileParser = new ImageTileParser();
+    private final ITileParser tileParser;
+
+    /**
+     * Stores the screenshot fetched for the current region update (re-used if a full update is required).
+     */
+    private byte[] screenshot = null;
+
+    /**
+     * Stores the channel snapshots of all updated chunks are appended to (or null if snapshots are not recorded).
+     */
+    private final FileChannel snapshotChannel;
+
+    /**
+     * Stores the codec used for recording snapshots.
+     */
+    private final ChunkSnapshotCodec snapshotCodec;
+
+    /**
+     * Stores the script used for streaming fingerprint frames within the browser (or null if frames are not streamed).
+     */
+    private final String streamScript;
 
     /**
      * Stores the internal logger instance.
@@ -112,6 +221,71 @@ public class ScreenGameInterface implements IGameInterface {
     @Getter
     private ArrayList<Action> actionsQueue = new ArrayList<>();
 
+    /**
+     * Constructs a new ScreenGameInterface instance.
+     *
+     * @param powersweeper The parent application instance.
+     */
+    public ScreenGameInterface(@NonNull Powersweeper powersweeper) {
+        this.powersweeper = powersweeper;
+
+        // full template verification is only needed while debugging the tile parser (or when explicitly requested)
+        boolean verificationEnabled = (powersweeper.getConfiguration().isDebugEnabled() || powersweeper.getConfiguration().isStrictVerificationEnabled());
+        this.tileParser = new ImageTileParser(verificationEnabled, powersweeper.getConfiguration().getParserCacheSize());
+
+        // parse tiles in row bands when more than one thread is available
+        int parserThreads = powersweeper.getConfiguration().getParserThreads();
+        this.parserPool = (parserThreads > 1 ? new ForkJoinPool(parserThreads) : null);
+
+        // open world store (chunks seen during previous runs are loaded from there on demand)
+        File worldStoreFile = powersweeper.getConfiguration().getWorldStoreFile();
+        WorldStore worldStore = null;
+
+        if (worldStoreFile != null) {
+            try {
+                worldStore = new WorldStore(worldStoreFile, CHUNK_SIZE, CHUNK_SIZE, this.tileParser);
+                getLogger().info("Loaded " + worldStore.size() + " chunks from world store " + worldStoreFile + ".");
+            } catch (IOException ex) {
+                getLogger().error("Could not open world store (chunks will not be persisted): " + ex.getMessage(), ex);
+            }
+        }
+
+        this.worldMap = new WorldMap(worldStore, WorldMap.DEFAULT_CACHE_SIZE);
+
+        // open snapshot recording
+        File snapshotFile = powersweeper.getConfiguration().getSnapshotFile();
+        FileChannel snapshotChannel = null;
+
+        if (snapshotFile != null) {
+            try {
+                snapshotChannel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } catch (IOException ex) {
+                getLogger().error("Could not open snapshot file (snapshots will not be recorded): " + ex.getMessage(), ex);
+            }
+        }
+
+        this.snapshotChannel = snapshotChannel;
+        this.snapshotCodec = new ChunkSnapshotCodec(this.tileParser);
+
+        // load fingerprint scripts (only samples are transferred instead of a full screenshot)
+        CaptureMode captureMode = powersweeper.getConfiguration().getCaptureMode();
+        String fingerprintScript = null;
+        String streamScript = null;
+
+        if (captureMode == CaptureMode.SCRIPT || captureMode == CaptureMode.STREAM) {
+            try {
+                fingerprintScript = Resources.toString(ScreenGameInterface.class.getResource("/script/fingerprint.js"), Charsets.UTF_8);
+                if (captureMode == CaptureMode.STREAM) streamScript = Resources.toString(ScreenGameInterface.class.getResource("/script/stream.js"), Charsets.UTF_8);
+            } catch (IOException ex) {
+                getLogger().error("Could not load fingerprint scripts (falling back to screenshots): " + ex.getMessage(), ex);
+                fingerprintScript = null;
+            }
+        }
+
+        this.fingerprintScript = fingerprintScript;
+        this.streamScript = streamScript;
+    }
+
     @Override
     public boolean hasQueue() {
         return true;
@@ -122,6 +296,41 @@ public class ScreenGameInterface implements IGameInterface {
         return actionsQueue;
     }
 
+    /**
+     * Adds the cells surrounding an action to the region re-parsed during the next update.
+     *
+     * @param x The X-Coordinate.
+     * @param y The Y-Coordinate.
+     */
+    protected void addClip(short x, short y) {
+        Rectangle region = new Rectangle((x - CLIP_RADIUS), (y - CLIP_RADIUS), ((2 * CLIP_RADIUS) + 1), ((2 * CLIP_RADIUS) + 1));
+        this.clip = (this.clip != null ? this.clip.union(region) : region);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void awaitFrame(long timeout) throws InterruptedException {
+        this.frameAvailable = false;
+
+        // wait for the whole time unless frames are streamed
+        if (this.streamScript == null || this.chunk == null) {
+            Thread.sleep(timeout);
+            return;
+        }
+
+        // poll the stream until it holds a frame captured after the last action
+        long deadline = (System.currentTimeMillis() + timeout);
+
+        while (!(this.frameAvailable = this.pullStream())) {
+            long remaining = (deadline - System.currentTimeMillis());
+            if (remaining <= 0) return;
+
+            Thread.sleep(Math.min(STREAM_INTERVAL, remaining));
+        }
+    }
+
     /**
      * Builds a tile related browser action.
      *
@@ -150,6 +359,24 @@ public class ScreenGameInterface implements IGameInterface {
         return action;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            this.worldMap.close();
+        } catch (IOException ex) {
+            getLogger().error("Could not close world store: " + ex.getMessage(), ex);
+        }
+
+        try {
+            if (this.snapshotChannel != null) this.snapshotChannel.close();
+        } catch (IOException ex) {
+            getLogger().error("Could not close snapshot file: " + ex.getMessage(), ex);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -159,11 +386,15 @@ public class ScreenGameInterface implements IGameInterface {
         if (this.chunkLocation == null || !this.chunkLocation.equals(location.getChunk().getLocation()))
             this.moveToChunk(location.getChunk().getLocation());
 
+        // re-parse the surrounding cells during the next update
+        this.addClip(location.getX(), location.getY());
+
         // prepare action
         Actions actions = this.buildTileAction(location.getX(), location.getY());
 
         // click
         actions.contextClick();
+        this.parkCursor(actions, location.getX(), location.getY());
 
         // perform
         if (hasQueue()) {
@@ -188,14 +419,26 @@ public class ScreenGameInterface implements IGameInterface {
      *
      * @param x The X-Coordinate.
      * @param y The Y-Coordinate.
+     * @return True if the tile changed since it was last parsed.
      */
-    protected void guessTile(short x, short y) {
+    protected boolean guessTile(short x, short y) {
         // get real coordinates
         int realX = this.getRealCoordinate(x);
         int realY = this.getRealCoordinate(y);
 
         // extract tile
-        BufferedImage tile = this.getScreen().getSubimage(realX, realY, (CELL_SIZE - BORDER_WIDTH), (CELL_SIZE - BORDER_WIDTH));
+        int index = ((y * this.chunk.getWidth()) + x);
+        ITileTemplate tile;
+
+        if (this.fingerprints != null)
+            tile = new FingerprintTileTemplate(this.samples, (CELL_SIZE - BORDER_WIDTH), Arrays.copyOfRange(this.fingerprints, (index * this.samples.length), ((index + 1) * this.samples.length)));
+        else
+            tile = this.getScreen().getTile(realX, realY, (CELL_SIZE - BORDER_WIDTH), (CELL_SIZE - BORDER_WIDTH));
+
+        // skip tiles which did not change since they were last parsed (only the sampled pixels are hashed if possible)
+        long checksum = ((this.tileParser instanceof ImageTileParser) ? ((ImageTileParser) this.tileParser).getChecksum(tile) : tile.getChecksum());
+
+        if (this.chunk.getCode(x, y) != PackedChunk.NONE && this.checksums[index] == checksum) return false;
 
         // calculate average color
         // TODO: Re-Add averages to simplify the process
@@ -218,16 +461,50 @@ public class ScreenGameInterface implements IGameInterface {
 		int size = (tile.getWidth () * tile.getHeight ());
 		Color average = new Color (averageR, averageG, averageB); */
 
-        // guess tile
-        try {
-            ITile parsedTile = this.getTileParser().parse(new ImageTileTemplate(tile, null), new TileLocation(x, y, this.chunk));
+        // guess tile (the code of the matching template is stored without creating a tile instance)
+        if (this.tileParser instanceof ImageTileParser) {
+            ImageTileTemplate template = ((ImageTileParser) this.tileParser).resolve(tile, checksum);
+            byte code = (template != null ? PackedChunk.getCode(template.getName()) : PackedChunk.FLAGGED);
+
+            if (code == PackedChunk.NONE)
+                getLogger().warn("Could not parse tile " + x + "," + y + ": Could not find tile for template \"" + template.getName() + "\".");
+
+            this.storeCode(x, y, code, (code != PackedChunk.NONE ? checksum : 0));
+            return true;
+        }
 
-            // store
-            ((MatrixChunk) this.getChunk()).setTile(x, y, parsedTile);
+        try {
+            this.storeCode(x, y, PackedChunk.getCode(this.getTileParser().parse(tile, new TileLocation(x, y, this.chunk))), checksum);
         } catch (TileException ex) {
             getLogger().warn("Could not parse tile " + x + "," + y + ": " + ex.getMessage(), ex);
-            return;
+
+            // forget outdated tile
+            this.storeCode(x, y, PackedChunk.NONE, 0);
         }
+
+        return true;
+    }
+
+    /**
+     * Guesses all tiles within a region.
+     *
+     * @param region The region (in cells).
+     * @return True if any tile on the border of the region changed (unless the border matches the chunk border).
+     */
+    protected boolean guessRegion(Rectangle region) {
+        boolean borderChanged = false;
+
+        for (short y = ((short) region.y); y < (region.y + region.height); y++) {
+            for (short x = ((short) region.x); x < (region.x + region.width); x++) {
+                if (!this.guessTile(x, y)) continue;
+
+                // changes on the border may continue outside of the region (e.g. when revealing empty areas)
+                if ((x == region.x && x > 0) || (y == region.y && y > 0) || (x == (region.x + region.width - 1) && x < (this.chunk.getWidth() - 1)) || (y == (region.y + region.height - 1) && y < (this.chunk.getHeight() - 1)))
+                    borderChanged = true;
+            }
+        }
+
+        return borderChanged;
     }
 
     /**
@@ -263,6 +540,7 @@ public class ScreenGameInterface implements IGameInterface {
                     action.clickAndHold();
                     action.moveByOffset(((int) x), ((int) y));
                     action.release();
+                    action.moveByOffset((this.getRealCoordinate(PARK_CELL) - ((int) x)), (this.getRealCoordinate(PARK_CELL) - ((int) y)));
 
                     // execute
                     action.build().perform();
@@ -276,6 +554,7 @@ public class ScreenGameInterface implements IGameInterface {
 
                     // update location
                     this.chunkLocation = location;
+                    this.frameAvailable = false;
 
                     // force update
                     this.update();
@@ -299,8 +578,13 @@ public class ScreenGameInterface implements IGameInterface {
             getLogger().warn("Aliens wake us up to early.");
         }
 
+        // move the cursor out of the way and hide popups (both persist until the next page load)
+        this.buildTileAction(PARK_CELL, PARK_CELL).build().perform();
+        this.getPowersweeper().getDriverManager().getExecutor().executeScript(POPUP_SCRIPT);
+
         // update location
         this.chunkLocation = location;
+        this.frameAvailable = false;
 
         // force update
         this.update();
@@ -309,6 +593,17 @@ public class ScreenGameInterface implements IGameInterface {
         getLogger().exit();
     }
 
+    /**
+     * Moves the cursor out of the way at the end of an action.
+     *
+     * @param action The action.
+     * @param x The X-Coordinate of the cell the cursor is located at.
+     * @param y The Y-Coordinate of the cell the cursor is located at.
+     */
+    protected void parkCursor(Actions action, short x, short y) {
+        action.moveByOffset((this.getRealCoordinate(PARK_CELL) - this.getRealCoordinate(x)), (this.getRealCoordinate(PARK_CELL) - this.getRealCoordinate(y)));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -318,11 +613,15 @@ public class ScreenGameInterface implements IGameInterface {
         if (this.chunkLocation == null || !this.chunkLocation.equals(location.getChunk().getLocation()))
             this.moveToChunk(location.getChunk().getLocation());
 
+        // re-parse the surrounding cells during the next update
+        this.addClip(location.getX(), location.getY());
+
         // prepare action
         Actions actions = this.buildTileAction(location.getX(), location.getY());
 
         // click
         actions.click();
+        this.parkCursor(actions, location.getX(), location.getY());
 
         // perform
         actions.build().perform();
@@ -335,14 +634,104 @@ public class ScreenGameInterface implements IGameInterface {
         if (toUse == null) toUse = new Random();
         short x = (short) toUse.nextInt(chunk.getWidth());
         short y = (short) toUse.nextInt(chunk.getHeight());
-        ITile tile = chunk.getTile(x, y);
-        if (tile instanceof UntouchedTile) {
-            touchTile(tile.getLocation());
+        if (chunk.getCode(x, y) == PackedChunk.UNTOUCHED) {
+            touchTile(new TileLocation(x, y, chunk));
         } else {
             touchRandomTile(toUse);
         }
     }
 
+    /**
+     * Creates a new (empty) chunk at the current location.
+     *
+     * @return The chunk.
+     */
+    protected PackedChunk createChunk() {
+        return new BitboardChunk(CHUNK_SIZE, CHUNK_SIZE, this.chunkLocation, this.getTileParser());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getChanges(@NonNull int[] changes) {
+        if (this.chunk == null) return 0;
+        return this.chunk.diff(this.previousChunk, changes);
+    }
+
+    /**
+     * Prepares the chunk buffer for the next update.
+     *
+     * Two buffers are kept per location: The current chunk becomes the previous chunk while the buffer of the previous
+     * chunk receives a copy of the current tiles (so unchanged tiles are carried forward) and is updated from there.
+     * Both buffers are re-created when the location changed (the previous chunk is empty in this case and the current
+     * chunk starts out with its stored version if any) and the current chunk is registered with the world map
+     * (replacing older versions of the same chunk).
+     */
+    protected void prepareChunk() {
+        if (this.chunk == null || !this.chunk.getLocation().equals(this.chunkLocation)) {
+            this.chunk = this.createChunk();
+            this.previousChunk = this.createChunk();
+            this.checksums = new long[(this.chunk.getWidth() * this.chunk.getHeight())];
+
+            if (this.worldMap.getStore() != null) this.worldMap.getStore().read(this.chunkLocation.getKey(), this.chunk);
+        } else {
+            PackedChunk chunk = this.previousChunk;
+
+            this.previousChunk = this.chunk;
+            this.chunk = chunk;
+            this.chunk.copyFrom(this.previousChunk);
+        }
+
+        this.worldMap.putChunk(this.chunk);
+    }
+
+    /**
+     * Returns the region affected by actions since the last update and discards it.
+     *
+     * Needs to be called before the chunk is prepared for the next update.
+     *
+     * @return The region (or null if the whole chunk needs to be updated).
+     */
+    protected Rectangle takeClipRegion() {
+        // restrict the update to the region around recent actions (as long as the chunk did not change)
+        Rectangle region = ((this.clip != null && this.chunk != null && this.chunk.getLocation().equals(this.chunkLocation)) ? this.getClipRegion() : null);
+        this.clip = null;
+
+        return region;
+    }
+
+    /**
+     * Writes the current chunk through to the world store and appends a snapshot of it to the recording (if
+     * configured).
+     */
+    protected synchronized void persistChunk() {
+        try {
+            if (this.worldMap.getStore() != null) this.worldMap.getStore().write(this.chunk);
+        } catch (IOException ex) {
+            getLogger().error("Could not write chunk " + this.chunk.getLocation().getX() + "," + this.chunk.getLocation().getY() + " to the world store: " + ex.getMessage(), ex);
+        }
+
+        try {
+            if (this.snapshotChannel != null) this.snapshotCodec.write(this.snapshotChannel, this.chunk);
+        } catch (IOException ex) {
+            getLogger().error("Could not record snapshot of chunk " + this.chunk.getLocation().getX() + "," + this.chunk.getLocation().getY() + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Stores the code of a tile in the current chunk.
+     *
+     * @param x The X-Coordinate.
+     * @param y The Y-Coordinate.
+     * @param code The code (see {@link PackedChunk}).
+     * @param checksum The checksum the tile was parsed from (zero if it was not parsed from pixels).
+     */
+    protected void storeCode(short x, short y, byte code, long checksum) {
+        this.chunk.setCode(x, y, code);
+        this.checksums[((y * this.chunk.getWidth()) + x)] = checksum;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -350,28 +739,228 @@ public class ScreenGameInterface implements IGameInterface {
     public void update() {
         getLogger().entry();
 
-        // re-create chunk
-        this.chunk = new MatrixChunk(((short) 20), ((short) 20), this.chunkLocation);
+        Rectangle region = this.takeClipRegion();
+        this.prepareChunk();
+
+        this.capture(region);
+    }
+
+    /**
+     * Reads the prepared chunk from the screen.
+     *
+     * @param region The region to update (or null to update the whole chunk).
+     */
+    protected void capture(Rectangle region) {
+        long start = System.nanoTime();
+
+        // use the streamed frame fetched while waiting (streamed frames always cover the whole chunk)
+        boolean streamed = this.frameAvailable;
+        this.frameAvailable = false;
+        if (streamed) region = null;
 
         // update
         try {
-            // move the curser out of the way
-            this.buildTileAction(((short) 30), ((short) 30)).build().perform();
+            // update region (falls back to a full update if changes may continue outside of it)
+            if (region != null && !this.updateRegion(region)) region = null;
+
+            if (region == null) {
+                // pull fingerprints (or the whole screen if the board cannot be read within the browser)
+                if (!streamed)
+                    this.fingerprints = (this.fingerprintScript != null ? this.pullFingerprints(new Rectangle(0, 0, this.chunk.getWidth(), this.chunk.getHeight())) : null);
+
+                if (this.fingerprints == null)
+                    this.screen.decode((this.screenshot != null ? this.screenshot : ((TakesScreenshot) this.getPowersweeper().getDriverManager().getDriver()).getScreenshotAs(OutputType.BYTES)));
+
+                // iterate over all fields
+                if (this.parserPool != null)
+                    this.parserPool.invoke(new ParseTask(((short) 0), this.chunk.getHeight(), ((short) Math.max(1, (this.chunk.getHeight() / this.parserPool.getParallelism())))));
+                else
+                    this.guessRows(((short) 0), this.chunk.getHeight());
+            }
 
-            // clear popups
-            this.getPowersweeper().getDriverManager().getExecutor().executeScript("$('.popup').hide ();");
+            // log cache efficiency
+            CacheStats cacheStats = ((this.tileParser instanceof ImageTileParser) ? ((ImageTileParser) this.tileParser).getCacheStats() : null);
+            if (cacheStats != null) getLogger().debug("Tile cache: " + cacheStats.hitCount() + " hits, " + cacheStats.missCount() + " misses (" + cacheStats.hitRate() + ").");
+        } catch (IOException ex) {
+            getLogger().error("Could not pull a new version of the current screen: " + ex.getMessage(), ex);
+        } finally {
+            this.screenshot = null;
+        }
+
+        this.persistChunk();
 
-            // pull screen
-            this.screen = ImageIO.read(new ByteArrayInputStream(((TakesScreenshot) this.getPowersweeper().getDriverManager().getDriver()).getScreenshotAs(OutputType.BYTES)));
+        // log frame acquisition time
+        getLogger().debug("Updated " + (region != null ? (region.width + "x" + region.height + " cells") : "chunk") + " from " + (this.fingerprints != null ? "fingerprints" : "screen") + " in " + ((System.nanoTime() - start) / 1000) + " microseconds.");
+    }
+
+    /**
+     * Returns the region which needs to be re-parsed after recent actions.
+     *
+     * @return The region (in cells).
+     */
+    protected Rectangle getClipRegion() {
+        Rectangle region = new Rectangle(this.clip);
 
-            // iterate over all fields
+        // include tiles which are still waiting for the server
+        for (short y = 0; y < this.chunk.getHeight(); y++) {
             for (short x = 0; x < this.chunk.getWidth(); x++) {
-                for (short y = 0; y < this.chunk.getHeight(); y++) {
-                    this.guessTile(x, y);
-                }
+                if (this.chunk.getCode(x, y) == PackedChunk.WAITING) region.add(new Rectangle(x, y, 1, 1));
             }
-        } catch (IOException ex) {
-            getLogger().error("Could not pull a new version of the current screen: " + ex.getMessage(), ex);
+        }
+
+        return region.intersection(new Rectangle(0, 0, this.chunk.getWidth(), this.chunk.getHeight()));
+    }
+
+    /**
+     * Updates all tiles within a region.
+     *
+     * @param region The region (in cells).
+     * @return True if the update is complete (false if a full update is required).
+     * @throws IOException Occurs if the screen cannot be decoded.
+     */
+    protected boolean updateRegion(Rectangle region) throws IOException {
+        // capture region
+        if (this.fingerprints != null) {
+            int[] fingerprints = this.pullFingerprints(region);
+            if (fingerprints == null) return false;
+
+            // replace samples of all cells within the region
+            int rowLength = (region.width * this.samples.length);
+
+            for (int y = 0; y < region.height; y++)
+                System.arraycopy(fingerprints, (y * rowLength), this.fingerprints, ((((region.y + y) * this.chunk.getWidth()) + region.x) * this.samples.length), rowLength);
+        } else {
+            this.screenshot = ((TakesScreenshot) this.getPowersweeper().getDriverManager().getDriver()).getScreenshotAs(OutputType.BYTES);
+            this.screen.decode(this.screenshot, new Rectangle((region.x * CELL_SIZE), (region.y * CELL_SIZE), (region.width * CELL_SIZE), (region.height * CELL_SIZE)));
+        }
+
+        // parse region
+        if (!this.guessRegion(region)) return true;
+
+        getLogger().debug("Changes reached the border of the updated region. Falling back to a full update.");
+        return false;
+    }
+
+    /**
+     * Extracts the sample pixels of all cells within a region within the browser.
+     *
+     * @param region The region (in cells).
+     * @return The sample values (or null if the board could not be read).
+     */
+    protected int[] pullFingerprints(Rectangle region) {
+        // execute script
+        Object result = this.getPowersweeper().getDriverManager().getExecutor().executeScript(this.fingerprintScript, region.x, region.y, region.width, region.height, CELL_SIZE, Ints.asList(this.samples), (CELL_SIZE - BORDER_WIDTH));
+
+        // unpack
+        int[] fingerprints = this.unpackFingerprints(result, region);
+        if (fingerprints == null) getLogger().debug("Could not read board within the browser. Falling back to screenshot.");
+
+        return fingerprints;
+    }
+
+    /**
+     * Fetches the newest frame captured within the browser (the stream is installed if it is not running).
+     *
+     * @return True if a frame captured after the last action was available.
+     */
+    protected boolean pullStream() {
+        Rectangle bounds = new Rectangle(0, 0, this.chunk.getWidth(), this.chunk.getHeight());
+        Object result = this.getPowersweeper().getDriverManager().getExecutor().executeScript(STREAM_FETCH_SCRIPT);
+
+        // (re-)install stream (e.g. after the page has been reloaded)
+        if (!(result instanceof Map)) {
+            getLogger().debug("Starting frame stream.");
+            this.getPowersweeper().getDriverManager().getExecutor().executeScript(this.streamScript, this.fingerprintScript, STREAM_INTERVAL, bounds.x, bounds.y, bounds.width, bounds.height, CELL_SIZE, Ints.asList(this.samples), (CELL_SIZE - BORDER_WIDTH));
+            return false;
+        }
+
+        // skip frames which were captured before the last action
+        Map<?, ?> frame = ((Map<?, ?>) result);
+        if (!Boolean.TRUE.equals(frame.get("fresh"))) return false;
+
+        // unpack
+        int[] fingerprints = this.unpackFingerprints(frame.get("values"), bounds);
+        if (fingerprints == null) return false;
+
+        this.fingerprints = fingerprints;
+        return true;
+    }
+
+    /**
+     * Unpacks the sample values returned by the fingerprint script.
+     *
+     * @param result The script result.
+     * @param region The captured region (in cells).
+     * @return The sample values (or null if the result does not match the region).
+     */
+    protected int[] unpackFingerprints(Object result, Rectangle region) {
+        // verify result
+        int expected = (region.width * region.height * this.samples.length);
+        if (!(result instanceof List) || ((List<?>) result).size() != expected) return null;
+
+        // unpack
+        int[] fingerprints = new int[expected];
+        int i = 0;
+
+        for (Object value : ((List<?>) result)) fingerprints[i++] = ((Number) value).intValue();
+
+        return fingerprints;
+    }
+
+    /**
+     * Guesses all tiles within a band of rows.
+     *
+     * @param start The first row.
+     * @param end The row after the last row.
+     */
+    protected void guessRows(short start, short end) {
+        for (short y = start; y < end; y++) {
+            for (short x = 0; x < this.chunk.getWidth(); x++) {
+                this.guessTile(x, y);
+            }
+        }
+    }
+
+    /**
+     * Parses a band of rows by splitting it until it fits the configured band size.
+     */
+    @RequiredArgsConstructor
+    protected class ParseTask extends RecursiveAction {
+
+        /**
+         * Defines the serialization version (tasks are never serialized).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Stores the first row.
+         */
+        private final short start;
+
+        /**
+         * Stores the row after the last row.
+         */
+        private final short end;
+
+        /**
+         * Stores the maximum amount of rows parsed by a single task.
+         */
+        private final short bandSize;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            // parse small bands directly
+            if ((this.end - this.start) <= this.bandSize) {
+                guessRows(this.start, this.end);
+                return;
+            }
+
+            // split band
+            short middle = ((short) ((this.start + this.end) >>> 1));
+            invokeAll(new ParseTask(this.start, middle, this.bandSize), new ParseTask(middle, this.end, this.bandSize));
         }
     }
 }
\ No newline at end of file
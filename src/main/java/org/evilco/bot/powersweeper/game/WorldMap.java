@@ -0,0 +1,298 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.evilco.bot.powersweeper.game.tile.generic.NumberTile;
+import org.evilco.bot.powersweeper.game.tile.parser.TileCounter;
+import org.evilco.bot.powersweeper.util.LongHashMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores all chunks seen so far and answers neighbor queries across chunk borders.
+ *
+ * Only chunks which have actually been visited are stored. Neighbors located within unknown chunks are skipped (and
+ * are thus missing from neighbor counts) which allows callers to detect tiles they cannot reason about yet. Chunks are
+ * indexed by their packed location key so lookups of adjacent chunks do not allocate.
+ *
+ * When backed by a {@link WorldStore}, only a bounded amount of chunks is kept in memory. The oldest chunks are
+ * dropped first and are loaded from the store again once they are requested.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class WorldMap {
+
+	/**
+	 * Defines the default amount of chunks kept in memory when backed by a store.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 64;
+
+	/**
+	 * Stores all chunks kept in memory (indexed by location key).
+	 */
+	private final LongHashMap<IChunk> chunks = new LongHashMap<> ();
+
+	/**
+	 * Stores the position of the oldest entry within the eviction queue.
+	 */
+	private int evictionIndex = 0;
+
+	/**
+	 * Stores the keys of all cached chunks in insertion order (or null if chunks are never dropped).
+	 */
+	private final long[] evictionQueue;
+
+	/**
+	 * Stores the backing store (or null if chunks are only kept in memory).
+	 */
+	@Getter
+	private final WorldStore store;
+
+	/**
+	 * Constructs a new WorldMap instance which keeps all chunks in memory.
+	 */
+	public WorldMap () {
+		this (null, 0);
+	}
+
+	/**
+	 * Constructs a new WorldMap instance.
+	 * @param store The backing store (or null if all chunks are kept in memory).
+	 * @param cacheSize The maximum amount of chunks kept in memory when backed by a store.
+	 */
+	public WorldMap (WorldStore store, int cacheSize) {
+		if (store != null && cacheSize < 1) throw new IllegalArgumentException ("The cache needs to hold at least one chunk.");
+
+		this.store = store;
+		this.evictionQueue = (store != null ? new long[cacheSize] : null);
+	}
+
+	/**
+	 * Keeps a chunk in memory (dropping the oldest chunk if the cache is full).
+	 * @param key The location key.
+	 * @param chunk The chunk.
+	 */
+	protected void cache (long key, IChunk chunk) {
+		if (this.evictionQueue != null && !this.chunks.containsKey (key)) {
+			if (this.chunks.size () >= this.evictionQueue.length) this.chunks.remove (this.evictionQueue[this.evictionIndex]);
+
+			this.evictionQueue[this.evictionIndex] = key;
+			this.evictionIndex = ((this.evictionIndex + 1) % this.evictionQueue.length);
+		}
+
+		this.chunks.put (key, chunk);
+	}
+
+	/**
+	 * Writes all stored chunks to disk and closes the backing store (if any).
+	 * @throws IOException Occurs if the store cannot be closed.
+	 */
+	public void close () throws IOException {
+		if (this.store != null) this.store.close ();
+	}
+
+	/**
+	 * Counts the neighbors of a tile which are of a certain type (including neighbors within adjacent chunks).
+	 * @param chunk The chunk.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @param type The tile type.
+	 * @return The amount of matching neighbors.
+	 */
+	public int countNeighbors (@NonNull IChunk chunk, short x, short y, TileCounter.TileType type) {
+		int count = chunk.countNeighbors (x, y, type);
+		if (!isBorder (chunk, x, y)) return count;
+
+		for (int neighborY = (y - 1); neighborY <= (y + 1); neighborY++) {
+			for (int neighborX = (x - 1); neighborX <= (x + 1); neighborX++) {
+				if (isInside (chunk, neighborX, neighborY)) continue;
+
+				IChunk neighbor = this.getChunk (chunk, neighborX, neighborY);
+				if (neighbor != null && neighbor.isTileType (wrap (neighborX, chunk.getWidth ()), wrap (neighborY, chunk.getHeight ()), type)) count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns a chunk.
+	 * @param location The chunk location.
+	 * @return The chunk (or null if it is unknown).
+	 */
+	public IChunk getChunk (@NonNull ChunkLocation location) {
+		return this.getChunk (location.getX (), location.getY ());
+	}
+
+	/**
+	 * Returns a chunk.
+	 * @param x The chunk X-Coordinate.
+	 * @param y The chunk Y-Coordinate.
+	 * @return The chunk (or null if it is unknown).
+	 */
+	public IChunk getChunk (long x, long y) {
+		long key = ChunkLocation.getKey (x, y);
+		IChunk chunk = this.chunks.get (key);
+		if (chunk != null || this.store == null) return chunk;
+
+		// load dropped chunks from store
+		chunk = this.store.read (key);
+		if (chunk != null) this.cache (key, chunk);
+
+		return chunk;
+	}
+
+	/**
+	 * Returns the chunk which contains a cell (given in coordinates relative to another chunk).
+	 * @param chunk The chunk.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return The chunk (or null if it is unknown).
+	 */
+	protected IChunk getChunk (IChunk chunk, int x, int y) {
+		int offsetX = (x < 0 ? -1 : (x >= chunk.getWidth () ? 1 : 0));
+		int offsetY = (y < 0 ? -1 : (y >= chunk.getHeight () ? 1 : 0));
+
+		if (offsetX == 0 && offsetY == 0) return chunk;
+		return this.getChunk ((chunk.getLocation ().getX () + offsetX), (chunk.getLocation ().getY () + offsetY));
+	}
+
+	/**
+	 * Returns all number tiles of a chunk which have at least one untouched neighbor (including neighbors within
+	 * adjacent chunks).
+	 * @param chunk The chunk.
+	 * @return The tiles.
+	 */
+	public NumberTile[] getFrontierTiles (@NonNull IChunk chunk) {
+		NumberTile[] frontier = chunk.getFrontierTiles ();
+		List<NumberTile> tiles = null;
+
+		// border tiles may only have untouched neighbors within adjacent chunks
+		for (short y = 0; y < chunk.getHeight (); y++) {
+			// only the first and last row are visited completely
+			int step = ((y == 0 || y == (chunk.getHeight () - 1)) ? 1 : Math.max (1, (chunk.getWidth () - 1)));
+
+			for (short x = 0; x < chunk.getWidth (); x += step) {
+				if (!chunk.isTileType (x, y, TileCounter.TileType.NUMBER) || chunk.countNeighbors (x, y, TileCounter.TileType.BLANK) > 0) continue;
+				if (this.countNeighbors (chunk, x, y, TileCounter.TileType.BLANK) == 0) continue;
+
+				if (tiles == null) tiles = new ArrayList<> (Arrays.asList (frontier));
+				tiles.add (((NumberTile) chunk.getTile (x, y)));
+			}
+		}
+
+		return (tiles != null ? tiles.toArray (new NumberTile[tiles.size ()]) : frontier);
+	}
+
+	/**
+	 * Returns the amount of known neighbors of a tile (which is eight unless an adjacent chunk is unknown).
+	 * @param chunk The chunk.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return The amount of neighbors.
+	 */
+	public int getNeighborCount (@NonNull IChunk chunk, short x, short y) {
+		int count = chunk.getNeighborCount (x, y);
+		if (!isBorder (chunk, x, y)) return count;
+
+		for (int neighborY = (y - 1); neighborY <= (y + 1); neighborY++) {
+			for (int neighborX = (x - 1); neighborX <= (x + 1); neighborX++) {
+				if (!isInside (chunk, neighborX, neighborY) && this.getChunk (chunk, neighborX, neighborY) != null) count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Checks whether a tile is located on the chunk border.
+	 * @param chunk The chunk.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return True if the tile is located on the border.
+	 */
+	protected static boolean isBorder (IChunk chunk, int x, int y) {
+		return (x == 0 || y == 0 || x == (chunk.getWidth () - 1) || y == (chunk.getHeight () - 1));
+	}
+
+	/**
+	 * Checks whether a cell is located within a chunk.
+	 * @param chunk The chunk.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return True if the cell is located within the chunk.
+	 */
+	protected static boolean isInside (IChunk chunk, int x, int y) {
+		return (x >= 0 && y >= 0 && x < chunk.getWidth () && y < chunk.getHeight ());
+	}
+
+	/**
+	 * Stores a chunk (replacing any chunk previously stored at the same location).
+	 * @param chunk The chunk.
+	 */
+	public void putChunk (@NonNull IChunk chunk) {
+		this.cache (chunk.getLocation ().getKey (), chunk);
+	}
+
+	/**
+	 * Returns the amount of known chunks.
+	 * @return The amount of chunks.
+	 */
+	public int size () {
+		return (this.store != null ? this.store.size () : this.chunks.size ());
+	}
+
+	/**
+	 * Visits all known neighbors of a tile (including neighbors within adjacent chunks) in row-major order.
+	 * @param chunk The chunk.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @param visitor The visitor.
+	 * @return False if the visitor stopped early.
+	 */
+	public boolean visitNeighbors (@NonNull IChunk chunk, short x, short y, @NonNull INeighborVisitor visitor) {
+		if (!isBorder (chunk, x, y)) return chunk.visitNeighbors (x, y, visitor);
+
+		for (int neighborY = (y - 1); neighborY <= (y + 1); neighborY++) {
+			for (int neighborX = (x - 1); neighborX <= (x + 1); neighborX++) {
+				if (neighborX == x && neighborY == y) continue;
+
+				IChunk neighbor = this.getChunk (chunk, neighborX, neighborY);
+				if (neighbor != null && !visitor.visit (neighbor, wrap (neighborX, chunk.getWidth ()), wrap (neighborY, chunk.getHeight ()))) return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Converts a coordinate relative to a chunk into a coordinate within the chunk which contains it.
+	 * @param coordinate The coordinate.
+	 * @param size The chunk size.
+	 * @return The coordinate.
+	 */
+	protected static short wrap (int coordinate, short size) {
+		if (coordinate < 0) return ((short) (coordinate + size));
+		if (coordinate >= size) return ((short) (coordinate - size));
+		return ((short) coordinate);
+	}
+}
\ No newline at end of file
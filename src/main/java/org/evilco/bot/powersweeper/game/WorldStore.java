@@ -0,0 +1,282 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileParser;
+import org.evilco.bot.powersweeper.util.LongIntHashMap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists chunks within a memory-mapped file of fixed-size records.
+ *
+ * The file starts with a header (magic, version, chunk size, record count and the location written last) followed by
+ * one record per chunk. Each record consists of the packed location key and the tile codes of the chunk packed into
+ * nibbles. Records are never moved which allows chunks to be overwritten in place.
+ *
+ * The file is mapped in segments of {@link #SEGMENT_SIZE} records. New segments are mapped (and the file grows) as
+ * soon as the last segment is full while previously mapped segments are kept as they are. The index of record slots
+ * is built by scanning all records when the store is opened.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class WorldStore implements Closeable {
+
+	/**
+	 * Defines the size of the file header.
+	 */
+	public static final int HEADER_SIZE = 24;
+
+	/**
+	 * Defines the magic number which identifies world store files ("PSWS").
+	 */
+	public static final int MAGIC = 0x50535753;
+
+	/**
+	 * Defines the amount of records mapped at once.
+	 */
+	public static final int SEGMENT_SIZE = 1024;
+
+	/**
+	 * Defines the file format version.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Stores the file channel.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Stores the amount of stored chunks.
+	 */
+	private int count;
+
+	/**
+	 * Stores the mapped file header.
+	 */
+	private final MappedByteBuffer header;
+
+	/**
+	 * Stores the chunk height.
+	 */
+	@Getter
+	private final short height;
+
+	/**
+	 * Stores the record slots (indexed by location key).
+	 */
+	private final LongIntHashMap index = new LongIntHashMap ();
+
+	/**
+	 * Stores the tile parser used for materializing tiles of loaded chunks.
+	 */
+	@Getter
+	private final ITileParser parser;
+
+	/**
+	 * Stores the size of a single record.
+	 */
+	private final int recordSize;
+
+	/**
+	 * Stores all mapped segments.
+	 */
+	private final List<MappedByteBuffer> segments = new ArrayList<> ();
+
+	/**
+	 * Stores the chunk width.
+	 */
+	@Getter
+	private final short width;
+
+	/**
+	 * Opens (or creates) a world store.
+	 * @param file The file.
+	 * @param width The chunk width.
+	 * @param height The chunk height.
+	 * @param parser The tile parser.
+	 * @throws IOException Occurs if the file cannot be opened or was created for a different chunk size.
+	 */
+	public WorldStore (@NonNull File file, short width, short height, @NonNull ITileParser parser) throws IOException {
+		this.width = width;
+		this.height = height;
+		this.parser = parser;
+		this.recordSize = (8 + PackedChunk.getPackedSize (width, height));
+
+		// open file
+		boolean created = (!file.exists () || file.length () == 0);
+		this.channel = (new RandomAccessFile (file, "rw")).getChannel ();
+
+		try {
+			this.header = this.channel.map (FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+			// write or verify header
+			if (created) {
+				this.header.putInt (0, MAGIC);
+				this.header.putInt (4, VERSION);
+				this.header.putShort (8, width);
+				this.header.putShort (10, height);
+				this.header.putInt (12, 0);
+				this.header.putLong (16, 0L);
+			} else {
+				if (this.header.getInt (0) != MAGIC) throw new IOException ("File " + file + " is not a world store.");
+				if (this.header.getInt (4) != VERSION) throw new IOException ("Unsupported world store version " + this.header.getInt (4) + ".");
+				if (this.header.getShort (8) != width || this.header.getShort (10) != height) throw new IOException ("World store contains chunks of " + this.header.getShort (8) + "x" + this.header.getShort (10) + " tiles (expected " + width + "x" + height + ").");
+			}
+
+			// build index
+			this.count = this.header.getInt (12);
+			for (int slot = 0; slot < this.count; slot++) this.index.put (this.getRecord (slot).getLong (), slot);
+		} catch (IOException ex) {
+			this.channel.close ();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Writes all records to disk and closes the file (closing a closed store has no effect).
+	 * @throws IOException Occurs if the file cannot be closed.
+	 */
+	@Override
+	public void close () throws IOException {
+		if (!this.channel.isOpen ()) return;
+
+		this.header.force ();
+		for (MappedByteBuffer segment : this.segments) segment.force ();
+
+		this.channel.close ();
+	}
+
+	/**
+	 * Checks whether a chunk has been stored.
+	 * @param location The chunk location.
+	 * @return True if the chunk is known.
+	 */
+	public boolean contains (@NonNull ChunkLocation location) {
+		return this.index.containsKey (location.getKey ());
+	}
+
+	/**
+	 * Returns the location of the chunk written last.
+	 * @return The location (or null if the store is empty).
+	 */
+	public ChunkLocation getLastLocation () {
+		if (this.count == 0) return null;
+
+		long key = this.header.getLong (16);
+		return (new ChunkLocation (ChunkLocation.getKeyX (key), ChunkLocation.getKeyY (key)));
+	}
+
+	/**
+	 * Returns a view of a record (positioned at its start).
+	 * @param slot The record slot.
+	 * @return The record.
+	 * @throws IOException Occurs if a new segment cannot be mapped.
+	 */
+	protected ByteBuffer getRecord (int slot) throws IOException {
+		int segment = (slot / SEGMENT_SIZE);
+
+		// map missing segments
+		while (this.segments.size () <= segment) {
+			long offset = (HEADER_SIZE + (((long) this.segments.size ()) * SEGMENT_SIZE * this.recordSize));
+			this.segments.add (this.channel.map (FileChannel.MapMode.READ_WRITE, offset, (((long) SEGMENT_SIZE) * this.recordSize)));
+		}
+
+		// create view
+		ByteBuffer record = this.segments.get (segment).duplicate ();
+		record.position (((slot % SEGMENT_SIZE) * this.recordSize));
+		record.limit ((record.position () + this.recordSize));
+
+		return record;
+	}
+
+	/**
+	 * Loads a chunk.
+	 * @param key The location key.
+	 * @return The chunk (or null if it has not been stored).
+	 */
+	public PackedChunk read (long key) {
+		if (!this.index.containsKey (key)) return null;
+
+		PackedChunk chunk = new PackedChunk (this.width, this.height, new ChunkLocation (ChunkLocation.getKeyX (key), ChunkLocation.getKeyY (key)), this.parser);
+		this.read (key, chunk);
+
+		return chunk;
+	}
+
+	/**
+	 * Loads the tiles of a chunk into an existing chunk.
+	 * @param key The location key.
+	 * @param chunk The chunk to load into.
+	 * @return True if the chunk has been stored.
+	 */
+	public boolean read (long key, @NonNull PackedChunk chunk) {
+		int slot = this.index.get (key, -1);
+		if (slot < 0) return false;
+
+		// all segments up to the last slot have been mapped already
+		ByteBuffer record = this.segments.get ((slot / SEGMENT_SIZE)).duplicate ();
+		record.position ((((slot % SEGMENT_SIZE) * this.recordSize) + 8));
+		chunk.unpack (record);
+
+		return true;
+	}
+
+	/**
+	 * Returns the amount of stored chunks.
+	 * @return The amount of chunks.
+	 */
+	public int size () {
+		return this.count;
+	}
+
+	/**
+	 * Writes a chunk (replacing the previous version of the same chunk).
+	 * @param chunk The chunk.
+	 * @throws IOException Occurs if the file cannot grow.
+	 */
+	public void write (@NonNull PackedChunk chunk) throws IOException {
+		if (chunk.getWidth () != this.width || chunk.getHeight () != this.height) throw new IllegalArgumentException ("Cannot store chunks of " + chunk.getWidth () + "x" + chunk.getHeight () + " tiles.");
+
+		long key = chunk.getLocation ().getKey ();
+		int slot = this.index.get (key, -1);
+
+		// write record (the record count is only increased once the record is complete)
+		ByteBuffer record = this.getRecord ((slot >= 0 ? slot : this.count));
+		record.putLong (key);
+		chunk.pack (record);
+
+		if (slot < 0) {
+			this.index.put (key, this.count);
+			this.header.putInt (12, ++this.count);
+		}
+
+		// update location
+		this.header.putLong (16, key);
+	}
+}
\ No newline at end of file
@@ -16,11 +16,11 @@
 package org.evilco.bot.powersweeper.game.tile;
 
 import lombok.*;
+import org.evilco.bot.powersweeper.game.ChunkLocation;
 import org.evilco.bot.powersweeper.game.IChunk;
+import org.evilco.bot.powersweeper.game.INeighborVisitor;
 import org.evilco.bot.powersweeper.game.tile.generic.UntouchedTile;
 
-import java.util.ArrayList;
-
 /**
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
@@ -60,29 +60,33 @@ public class TileLocation {
         return this.chunk.getTile(this.getX(), this.getY());
     }
 
+    /**
+     * Returns the packed world coordinates of the tile.
+     *
+     * @return The key.
+     * @see org.evilco.bot.powersweeper.game.ChunkLocation#getKey(long, long)
+     */
+    public long getKey() {
+        return ChunkLocation.getKey((this.chunk.getLocation().getX() * this.chunk.getWidth()) + this.x, (this.chunk.getLocation().getY() * this.chunk.getHeight()) + this.y);
+    }
+
     /**
      * Gets the neighbors of the tile.
      *
      * @return The neighboring tiles of this TileLocation.
      */
     public ITile[] getNeighbors() {
-        ArrayList<ITile> neighbors = new ArrayList<>();
-        //top
-        if (y != 0) {
-            if (x != 0) neighbors.add(chunk.getTile((short) (x - 1), (short) (y - 1)));
-            neighbors.add(chunk.getTile(x, (short) (y - 1)));
-            if (x != chunk.getWidth() - 1) neighbors.add(chunk.getTile((short) (x + 1), (short) (y - 1)));
-        }
-        //middle
-        if (x != 0) neighbors.add(chunk.getTile((short) (x - 1), y));
-        if (x != chunk.getWidth() - 1) neighbors.add(chunk.getTile((short) (x + 1), y));
-        //bottom
-        if (y != chunk.getHeight() - 1) {
-            if (x != 0) neighbors.add(chunk.getTile((short) (x - 1), (short) (y + 1)));
-            neighbors.add(chunk.getTile((x), (short) (y + 1)));
-            if (x != chunk.getWidth() - 1) neighbors.add(chunk.getTile((short) (x + 1), (short) (y + 1)));
-        }
-        return neighbors.toArray(new ITile[neighbors.size()]);
+        final ITile[] neighbors = new ITile[chunk.getNeighborCount(x, y)];
+        chunk.visitNeighbors(x, y, new INeighborVisitor() {
+            private int i = 0;
+
+            @Override
+            public boolean visit(IChunk chunk, short x, short y) {
+                neighbors[i++] = chunk.getTile(x, y);
+                return true;
+            }
+        });
+        return neighbors;
     }
 
 
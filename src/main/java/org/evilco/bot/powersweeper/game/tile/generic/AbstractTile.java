@@ -54,4 +54,22 @@ public class AbstractTile implements ITile {
     public boolean equals(ITile other) {
         return other.getLocation().equals(location);
     }
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Tiles are compared by value as chunks may hand out a new instance on every call.
+	 */
+	@Override
+	public boolean equals (Object other) {
+		return (other instanceof ITile && this.equals (((ITile) other)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode () {
+		return this.location.hashCode ();
+	}
 }
\ No newline at end of file
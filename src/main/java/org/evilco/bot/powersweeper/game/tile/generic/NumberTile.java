@@ -17,10 +17,12 @@ package org.evilco.bot.powersweeper.game.tile.generic;
 
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.evilco.bot.powersweeper.game.tile.ITile;
 import org.evilco.bot.powersweeper.game.tile.TileLocation;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileFactory;
 import org.evilco.bot.powersweeper.game.tile.parser.ITileParser;
 import org.evilco.bot.powersweeper.game.tile.parser.ITileTemplate;
 
@@ -30,6 +32,16 @@ import org.evilco.bot.powersweeper.game.tile.parser.ITileTemplate;
  */
 public class NumberTile extends AbstractTile implements Comparable<NumberTile> {
 
+	/**
+	 * Defines the maximum tile value.
+	 */
+	public static final short MAXIMUM_VALUE = 8;
+
+	/**
+	 * Stores the factories for all tile values.
+	 */
+	private static final ITileFactory[] FACTORIES;
+
 	/**
 	 * Stores the internal logger instance.
 	 */
@@ -42,34 +54,36 @@ public class NumberTile extends AbstractTile implements Comparable<NumberTile> {
 	@Getter
 	private final short value;
 
+	/**
+	 * Static Initializer
+	 */
+	static {
+		FACTORIES = new ITileFactory[(MAXIMUM_VALUE + 1)];
+
+		for (short i = 0; i <= MAXIMUM_VALUE; i++) FACTORIES[i] = new Factory (i);
+	}
+
 	/**
 	 * Constructs a new NumberTile instance.
 	 * @param location The tile location.
 	 * @param template The tile template.
 	 * @param parser The tile parser.
+	 * @param value The tile value.
 	 */
-	public NumberTile (TileLocation location, ITileTemplate template, ITileParser parser) {
+	public NumberTile (TileLocation location, ITileTemplate template, ITileParser parser, short value) {
 		super (location, template, parser);
 
-		// get number
-		short value = -1;
-
-		for (short i = 0; i <= 8; i++) {
-			try {
-				// store
-				if (parser.getTemplate ("number-" + i).matches (template)) {
-					value = i;
-					break;
-				}
-			} catch (NullPointerException ex) {
-				getLogger ().warn ("Tile template for number " + i + " seems to be missing.");
-			}
-		}
-
 		this.value = value;
+	}
 
-		// log
-		getLogger ().trace ("Set value to " + this.value + ".");
+	/**
+	 * Returns the factory which creates tiles of a certain value.
+	 * @param value The tile value.
+	 * @return The factory.
+	 */
+	public static ITileFactory getFactory (short value) {
+		if (value < 0 || value > MAXIMUM_VALUE) throw new IllegalArgumentException ("Tile value " + value + " is out of bounds.");
+		return FACTORIES[value];
 	}
 
     @Override
@@ -87,4 +101,24 @@ public class NumberTile extends AbstractTile implements Comparable<NumberTile> {
         }
         return false;
     }
+
+	/**
+	 * Creates new NumberTile instances of a fixed value.
+	 */
+	@RequiredArgsConstructor
+	protected static class Factory implements ITileFactory {
+
+		/**
+		 * Stores the tile value.
+		 */
+		private final short value;
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public ITile create (TileLocation location, ITileTemplate template, ITileParser parser) {
+			return new NumberTile (location, template, parser, this.value);
+		}
+	}
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ package org.evilco.bot.powersweeper.game.tile.generic;
 
 import org.evilco.bot.powersweeper.game.tile.ITile;
 import org.evilco.bot.powersweeper.game.tile.TileLocation;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileFactory;
 import org.evilco.bot.powersweeper.game.tile.parser.ITileParser;
 import org.evilco.bot.powersweeper.game.tile.parser.ITileTemplate;
 
@@ -26,6 +27,20 @@ import org.evilco.bot.powersweeper.game.tile.parser.ITileTemplate;
  */
 public class WaitingTile extends AbstractTile {
 
+	/**
+	 * Creates new WaitingTile instances.
+	 */
+	public static final ITileFactory FACTORY = new ITileFactory () {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public ITile create (TileLocation location, ITileTemplate template, ITileParser parser) {
+			return new WaitingTile (location, template, parser);
+		}
+	};
+
 	/**
 	 * Constructs a new WaitingTile instance.
 	 * @param location The tile location.
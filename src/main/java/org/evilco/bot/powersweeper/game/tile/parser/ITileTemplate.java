@@ -21,6 +21,12 @@ package org.evilco.bot.powersweeper.game.tile.parser;
  */
 public interface ITileTemplate {
 
+	/**
+	 * Returns a checksum over the template contents.
+	 * @return The checksum.
+	 */
+	public long getChecksum ();
+
 	/**
 	 * Returns the template name.
 	 * @return The template name.
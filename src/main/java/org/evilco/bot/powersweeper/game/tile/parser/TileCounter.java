@@ -38,6 +38,26 @@ public class TileCounter {
         return count;
     }
 
+    /**
+     * Checks whether a single tile is of a certain type.
+     * @param tile The tile (or null).
+     * @param type The type.
+     * @return true if the tile matches.
+     */
+    public static boolean matches(ITile tile, TileType type) {
+        switch (type) {
+            case BOMB:
+                return tile instanceof BombTile;
+            case BLANK:
+                return tile instanceof UntouchedTile;
+            case NUMBER:
+                return tile instanceof NumberTile;
+            case FLAG:
+                return tile instanceof FlaggedTile;
+        }
+        return false;
+    }
+
     public static enum TileType {
         BOMB,
         BLANK,
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game.tile.parser.image;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileTemplate;
+
+import java.util.Arrays;
+
+/**
+ * Represents a tile which is only known by the values of its sample pixels (as extracted within the browser).
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class FingerprintTileTemplate implements ITileTemplate {
+
+	/**
+	 * Stores the sample checksum (calculated on first use).
+	 */
+	private long checksum;
+
+	/**
+	 * Indicates whether the checksum has been calculated.
+	 */
+	private volatile boolean checksumCalculated = false;
+
+	/**
+	 * Stores the offsets of all sample pixels (shared between fingerprints).
+	 */
+	@Getter
+	private final int[] samples;
+
+	/**
+	 * Stores the sample values (packed ARGB).
+	 */
+	@Getter
+	private final int[] values;
+
+	/**
+	 * Stores the tile width.
+	 */
+	@Getter
+	private final int width;
+
+	/**
+	 * Constructs a new FingerprintTileTemplate instance.
+	 * @param samples The sample offsets.
+	 * @param width The tile width.
+	 * @param values The sample values.
+	 */
+	public FingerprintTileTemplate (@NonNull int[] samples, int width, @NonNull int[] values) {
+		if (samples.length != values.length) throw new IllegalArgumentException ("Expected " + samples.length + " sample values but got " + values.length + ".");
+
+		this.samples = samples;
+		this.width = width;
+		this.values = values;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getChecksum () {
+		// return cached version
+		if (this.checksumCalculated) return this.checksum;
+
+		// calculate
+		long checksum = 0xCBF29CE484222325L;
+
+		for (int value : this.values) {
+			checksum ^= value;
+			checksum *= 0x100000001B3L;
+		}
+
+		// store
+		this.checksum = checksum;
+		this.checksumCalculated = true;
+
+		return checksum;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName () {
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean matches (ITileTemplate template2) {
+		// compare fingerprints
+		if (template2 instanceof FingerprintTileTemplate) {
+			FingerprintTileTemplate fingerprint = ((FingerprintTileTemplate) template2);
+			return (this.width == fingerprint.width && Arrays.equals (this.samples, fingerprint.samples) && Arrays.equals (this.values, fingerprint.values));
+		}
+
+		// check type
+		if (!(template2 instanceof ImageTileTemplate)) return false;
+
+		// cast
+		ImageTileTemplate image = ((ImageTileTemplate) template2);
+
+		// check size
+		if (this.width != image.getWidth ()) return false;
+
+		// compare samples (transparent template pixels are ignored)
+		for (int i = 0; i < this.samples.length; i++) {
+			int pixel = image.getPixel ((this.samples[i] % this.width), (this.samples[i] / this.width));
+			if ((pixel >> 24) != 0x00 && pixel != this.values[i]) return false;
+		}
+
+		// all okay
+		return true;
+	}
+}
\ No newline at end of file
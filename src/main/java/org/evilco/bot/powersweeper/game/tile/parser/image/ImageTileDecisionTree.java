@@ -0,0 +1,393 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game.tile.parser.image;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Classifies tiles by walking a decision tree of probe pixels derived from the tile templates.
+ *
+ * Each node probes a single pixel which is opaque in all remaining templates and branches on its value. Probes which
+ * are already in use elsewhere in the tree are preferred (to keep the set of probe pixels minimal) followed by probes
+ * close to the tile center (where glyphs and flags are drawn). Cells which do not hit a known branch on any level are
+ * rejected right away.
+ *
+ * As unknown imagery (such as flags) may still agree with a template in all of its probes, leaves additionally check a
+ * sparse grid of guard pixels across the template before reporting a match.
+ *
+ * Probes and guards are stored in a single list of sample pixels which allows callers to extract the values the tree
+ * needs (e.g. within the browser) and classify tiles without transferring their full image.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class ImageTileDecisionTree {
+
+	/**
+	 * Defines the amount of guard pixels checked per axis.
+	 */
+	public static final int GUARD_RESOLUTION = 3;
+
+	/**
+	 * Stores the template height.
+	 */
+	@Getter
+	private final int height;
+
+	/**
+	 * Stores the amount of probe pixels.
+	 */
+	private final int probeCount;
+
+	/**
+	 * Stores the root node.
+	 */
+	private final Node root;
+
+	/**
+	 * Stores the offsets of all sample pixels (probes first, followed by guards).
+	 */
+	private final int[] samples;
+
+	/**
+	 * Stores the template width.
+	 */
+	@Getter
+	private final int width;
+
+	/**
+	 * Constructs a new ImageTileDecisionTree instance.
+	 * @param templates The templates.
+	 */
+	public ImageTileDecisionTree (@NonNull Collection<ImageTileTemplate> templates) {
+		// find common size
+		int width = (templates.isEmpty () ? 0 : Integer.MAX_VALUE);
+		int height = (templates.isEmpty () ? 0 : Integer.MAX_VALUE);
+
+		for (ImageTileTemplate template : templates) {
+			width = Math.min (width, template.getWidth ());
+			height = Math.min (height, template.getHeight ());
+		}
+
+		this.width = width;
+		this.height = height;
+
+		// build tree
+		List<Integer> probes = new ArrayList<> ();
+		List<Integer> samples = new ArrayList<> ();
+		this.root = this.build (ImmutableList.copyOf (templates), probes, samples);
+		this.probeCount = probes.size ();
+
+		// move guards behind probes
+		int[] sampleOffsets = new int[samples.size ()];
+		int i = 0;
+
+		for (int offset : probes) sampleOffsets[i++] = offset;
+		for (int offset : samples) if (!probes.contains (offset)) sampleOffsets[i++] = offset;
+
+		this.samples = sampleOffsets;
+		this.index (this.root);
+	}
+
+	/**
+	 * Builds a tree node.
+	 * @param templates The templates to separate.
+	 * @param probes The probes used so far.
+	 * @param samples The samples (probes and guards) used so far.
+	 * @return The node.
+	 */
+	protected Node build (List<ImageTileTemplate> templates, List<Integer> probes, List<Integer> samples) {
+		// single templates do not need any further separation
+		if (templates.size () == 1) return new Node (templates, this.buildGuards (templates.get (0), samples));
+		if (templates.isEmpty ()) return new Node (templates, new int[0]);
+
+		// find best probe
+		int bestOffset = -1;
+		int bestSize = templates.size ();
+		boolean bestReused = false;
+		int bestDistance = Integer.MAX_VALUE;
+
+		for (int y = 0; y < this.height; y++) {
+			for (int x = 0; x < this.width; x++) {
+				int offset = ((y * this.width) + x);
+
+				// calculate the size of the largest group this probe would produce
+				Map<Integer, Integer> groups = new HashMap<> ();
+				int size = 0;
+				boolean opaque = true;
+
+				for (ImageTileTemplate template : templates) {
+					int pixel = template.getPixel (x, y);
+
+					// skip probes which are transparent in any template
+					if ((pixel >> 24) == 0x00) {
+						opaque = false;
+						break;
+					}
+
+					int count = (groups.containsKey (pixel) ? groups.get (pixel) + 1 : 1);
+					groups.put (pixel, count);
+					size = Math.max (size, count);
+				}
+
+				if (!opaque || size >= templates.size ()) continue;
+
+				// prefer smaller groups, reused probes and central pixels (in this order)
+				boolean reused = probes.contains (offset);
+				int distance = (Math.abs ((2 * x) - this.width) + Math.abs ((2 * y) - this.height));
+
+				if (size > bestSize) continue;
+				if (size == bestSize && bestReused && !reused) continue;
+				if (size == bestSize && bestReused == reused && distance >= bestDistance) continue;
+
+				bestOffset = offset;
+				bestSize = size;
+				bestReused = reused;
+				bestDistance = distance;
+			}
+		}
+
+		// templates are identical in all pixels they have in common (these are always verified)
+		if (bestOffset == -1) return new Node (templates, new int[0]);
+
+		// register probe
+		if (!probes.contains (bestOffset)) probes.add (bestOffset);
+		if (!samples.contains (bestOffset)) samples.add (bestOffset);
+
+		// group templates by probe value
+		Map<Integer, List<ImageTileTemplate>> groups = new LinkedHashMap<> ();
+
+		for (ImageTileTemplate template : templates) {
+			int pixel = template.getPixel ((bestOffset % this.width), (bestOffset / this.width));
+
+			if (!groups.containsKey (pixel)) groups.put (pixel, new ArrayList<ImageTileTemplate> ());
+			groups.get (pixel).add (template);
+		}
+
+		// build children
+		int[] values = new int[groups.size ()];
+		Node[] children = new Node[groups.size ()];
+		int i = 0;
+
+		for (Map.Entry<Integer, List<ImageTileTemplate>> group : groups.entrySet ()) {
+			values[i] = group.getKey ();
+			children[i++] = this.build (group.getValue (), probes, samples);
+		}
+
+		return new Node (bestOffset, values, children);
+	}
+
+	/**
+	 * Builds the guard pixels of a template.
+	 * @param template The template.
+	 * @param samples The samples used so far.
+	 * @return The guard offsets.
+	 */
+	protected int[] buildGuards (ImageTileTemplate template, List<Integer> samples) {
+		List<Integer> guards = new ArrayList<> ();
+
+		for (int i = 1; i <= GUARD_RESOLUTION; i++) {
+			for (int j = 1; j <= GUARD_RESOLUTION; j++) {
+				int x = ((j * this.width) / (GUARD_RESOLUTION + 1));
+				int y = ((i * this.height) / (GUARD_RESOLUTION + 1));
+
+				int offset = ((y * this.width) + x);
+				if ((template.getPixel (x, y) >> 24) == 0x00) continue;
+
+				guards.add (offset);
+				if (!samples.contains (offset)) samples.add (offset);
+			}
+		}
+
+		return Ints.toArray (guards);
+	}
+
+	/**
+	 * Replaces the pixel offsets stored in a sub-tree with their sample indices.
+	 * @param node The node.
+	 */
+	protected void index (Node node) {
+		if (node.templates != null) {
+			for (int i = 0; i < node.guards.length; i++) node.guards[i] = this.indexOf (node.guards[i]);
+			return;
+		}
+
+		node.probe = this.indexOf (node.probe);
+		for (Node child : node.children) this.index (child);
+	}
+
+	/**
+	 * Returns the sample index of a pixel offset.
+	 * @param offset The offset.
+	 * @return The index.
+	 */
+	protected int indexOf (int offset) {
+		for (int i = 0; i < this.samples.length; i++) if (this.samples[i] == offset) return i;
+		throw new IllegalArgumentException ("Offset " + offset + " is not a sample pixel.");
+	}
+
+	/**
+	 * Finds all candidate templates for an image.
+	 * @param image The image.
+	 * @return The candidates (usually one or none).
+	 */
+	public List<ImageTileTemplate> classify (@NonNull ImageTileTemplate image) {
+		// check size
+		if (image.getWidth () != this.width || image.getHeight () != this.height) return Collections.emptyList ();
+
+		return this.classify (image, null);
+	}
+
+	/**
+	 * Finds all candidate templates for a fingerprint.
+	 * @param fingerprint The fingerprint.
+	 * @return The candidates (usually one or none).
+	 */
+	public List<ImageTileTemplate> classify (@NonNull FingerprintTileTemplate fingerprint) {
+		// check samples
+		if (!Arrays.equals (fingerprint.getSamples (), this.samples)) return Collections.emptyList ();
+
+		return this.classify (null, fingerprint.getValues ());
+	}
+
+	/**
+	 * Walks the tree for either an image or a set of sample values.
+	 * @param image The image (or null if values are passed).
+	 * @param values The sample values (or null if an image is passed).
+	 * @return The candidates.
+	 */
+	protected List<ImageTileTemplate> classify (ImageTileTemplate image, int[] values) {
+		// walk tree
+		Node node = this.root;
+
+		while (node != null && node.templates == null) node = node.getChild (this.getSample (image, values, node.probe));
+
+		// reject unknown tiles
+		if (node == null) return Collections.emptyList ();
+
+		// check guards
+		for (int sample : node.guards) {
+			int offset = this.samples[sample];
+
+			if (this.getSample (image, values, sample) != node.templates.get (0).getPixel ((offset % this.width), (offset / this.width))) return Collections.emptyList ();
+		}
+
+		return node.templates;
+	}
+
+	/**
+	 * Returns the amount of probe pixels used by this tree.
+	 * @return The probe count.
+	 */
+	public int getProbeCount () {
+		return this.probeCount;
+	}
+
+	/**
+	 * Returns a single sample value of either an image or a set of sample values.
+	 * @param image The image (or null if values are passed).
+	 * @param values The sample values (or null if an image is passed).
+	 * @param sample The sample index.
+	 * @return The packed ARGB value.
+	 */
+	protected int getSample (ImageTileTemplate image, int[] values, int sample) {
+		if (values != null) return values[sample];
+
+		int offset = this.samples[sample];
+		return image.getPixel ((offset % this.width), (offset / this.width));
+	}
+
+	/**
+	 * Returns the offsets of all pixels read by this tree (probes first, followed by guards).
+	 * @return The offsets (in row-major order of a single template).
+	 */
+	public int[] getSamples () {
+		return this.samples.clone ();
+	}
+
+	/**
+	 * Represents a single tree node.
+	 */
+	protected static class Node {
+
+		/**
+		 * Stores all child nodes.
+		 */
+		private final Node[] children;
+
+		/**
+		 * Stores the sample indices of all guard pixels (if this is a leaf).
+		 */
+		private final int[] guards;
+
+		/**
+		 * Stores the probe index (if this is not a leaf).
+		 */
+		private int probe;
+
+		/**
+		 * Stores the remaining templates (if this is a leaf).
+		 */
+		private final List<ImageTileTemplate> templates;
+
+		/**
+		 * Stores the probe values which lead to each child.
+		 */
+		private final int[] values;
+
+		/**
+		 * Constructs a new leaf.
+		 * @param templates The templates.
+		 * @param guards The guard offsets.
+		 */
+		public Node (@NonNull List<ImageTileTemplate> templates, @NonNull int[] guards) {
+			this.children = null;
+			this.guards = guards;
+			this.probe = -1;
+			this.templates = ImmutableList.copyOf (templates);
+			this.values = null;
+		}
+
+		/**
+		 * Constructs a new branch.
+		 * @param probe The probe offset.
+		 * @param values The probe values.
+		 * @param children The child nodes.
+		 */
+		public Node (int probe, @NonNull int[] values, @NonNull Node[] children) {
+			this.children = children;
+			this.guards = null;
+			this.probe = probe;
+			this.templates = null;
+			this.values = values;
+		}
+
+		/**
+		 * Returns the child for a probe value.
+		 * @param value The value.
+		 * @return The child or null.
+		 */
+		public Node getChild (int value) {
+			for (int i = 0; i < this.values.length; i++) if (this.values[i] == value) return this.children[i];
+			return null;
+		}
+	}
+}
\ No newline at end of file
@@ -15,6 +15,10 @@
 
 package org.evilco.bot.powersweeper.game.tile.parser.image;
 
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -25,15 +29,15 @@ import org.evilco.bot.powersweeper.game.tile.ITile;
 import org.evilco.bot.powersweeper.game.tile.TileLocation;
 import org.evilco.bot.powersweeper.game.tile.error.TileException;
 import org.evilco.bot.powersweeper.game.tile.generic.*;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileFactory;
 import org.evilco.bot.powersweeper.game.tile.parser.ITileParser;
 import org.evilco.bot.powersweeper.game.tile.parser.ITileTemplate;
-import org.evilco.bot.powersweeper.game.tile.parser.error.TileInitializationException;
 import org.evilco.bot.powersweeper.game.tile.parser.error.UnknownTileException;
 
 import javax.imageio.ImageIO;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -42,6 +46,17 @@ import java.util.Map;
  */
 public class ImageTileParser implements ITileParser {
 
+	/**
+	 * Defines the default amount of cached parse results (the cache is disabled by default as the decision tree reads
+	 * no more pixels than a cache key is built from).
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 0;
+
+	/**
+	 * Stores the offsets of all pixels read by the decision tree.
+	 */
+	private static final int[] SAMPLES;
+
 	/**
 	 * Stores all tile templates.
 	 */
@@ -52,7 +67,13 @@ public class ImageTileParser implements ITileParser {
 	 * Stores all tile mappings.
 	 */
 	@Getter (AccessLevel.PROTECTED)
-	private static final Map<String, Class<? extends ITile>> TILES;
+	private static final Map<String, ITileFactory> TILES;
+
+	/**
+	 * Stores the decision tree over all tile templates.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private static final ImageTileDecisionTree TREE;
 
 	/**
 	 * Stores the internal logger instance.
@@ -60,26 +81,38 @@ public class ImageTileParser implements ITileParser {
 	@Getter (AccessLevel.PROTECTED)
 	private static final Logger logger = LogManager.getLogger (ImageTileParser.class);
 
+	/**
+	 * Stores the parse results of previously seen tiles indexed by their pixel checksum (or null if disabled).
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private final Cache<Long, Optional<ImageTileTemplate>> cache;
+
+	/**
+	 * Indicates whether classified tiles are verified against their full template.
+	 */
+	@Getter
+	private final boolean verificationEnabled;
+
 	/**
 	 * Static Initializer
 	 */
 	static {
 		// create builders
 		ImmutableMap.Builder<String, ImageTileTemplate> templateBuilder = new ImmutableMap.Builder<> ();
-		ImmutableMap.Builder<String, Class<? extends ITile>> tileBuilder = new ImmutableMap.Builder<> ();
+		ImmutableMap.Builder<String, ITileFactory> tileBuilder = new ImmutableMap.Builder<> ();
 
 		// load waiting
 		try {
-			templateBuilder.put ("waiting", new ImageTileTemplate (ImageIO.read (ImageTileParser.class.getResourceAsStream ("/tile/waiting.png")), "waiting"));
-			tileBuilder.put ("waiting", WaitingTile.class);
+			templateBuilder.put ("waiting", new RunLengthImageTileTemplate (ImageIO.read (ImageTileParser.class.getResourceAsStream ("/tile/waiting.png")), "waiting"));
+			tileBuilder.put ("waiting", WaitingTile.FACTORY);
 		} catch (IOException ex) {
 			getLogger ().warn ("Could not load tile \"waiting.png\": " + ex.getMessage ());
 		}
 
 		// load untouched
 		try {
-			templateBuilder.put ("untouched", new ImageTileTemplate (ImageIO.read (ImageTileParser.class.getResourceAsStream ("/tile/untouched.png")), "untouched"));
-			tileBuilder.put ("untouched", UntouchedTile.class);
+			templateBuilder.put ("untouched", new RunLengthImageTileTemplate (ImageIO.read (ImageTileParser.class.getResourceAsStream ("/tile/untouched.png")), "untouched"));
+			tileBuilder.put ("untouched", UntouchedTile.FACTORY);
 		} catch (IOException ex) {
 			getLogger ().warn ("Could not load tile \"bomb.png\": " + ex.getMessage ());
 		}
@@ -87,8 +120,8 @@ public class ImageTileParser implements ITileParser {
 		// load numbers
 		for (short i = 0; i <= 8; i++) {
 			try {
-				templateBuilder.put ("number-" + i, new ImageTileTemplate (ImageIO.read (ImageTileParser.class.getResourceAsStream ("/tile/number-" + i + ".png")), "number-" + i));
-				tileBuilder.put ("number-" + i, NumberTile.class);
+				templateBuilder.put ("number-" + i, new RunLengthImageTileTemplate (ImageIO.read (ImageTileParser.class.getResourceAsStream ("/tile/number-" + i + ".png")), "number-" + i));
+				tileBuilder.put ("number-" + i, NumberTile.getFactory (i));
 			} catch (Exception ex) {
 				getLogger ().warn ("Could not load tile \"number-" + i + ".png\": " + ex.getMessage ());
 			}
@@ -96,8 +129,8 @@ public class ImageTileParser implements ITileParser {
 
 		// load bomb
 		try {
-			templateBuilder.put ("bomb", new ImageTileTemplate (ImageIO.read (ImageTileParser.class.getResourceAsStream ("/tile/bomb.png")), "bomb"));
-			tileBuilder.put ("bomb", BombTile.class);
+			templateBuilder.put ("bomb", new RunLengthImageTileTemplate (ImageIO.read (ImageTileParser.class.getResourceAsStream ("/tile/bomb.png")), "bomb"));
+			tileBuilder.put ("bomb", BombTile.FACTORY);
 		} catch (Exception ex) {
 			getLogger ().warn ("Could not load tile \"bomb.png\": " + ex.getMessage ());
 		}
@@ -105,6 +138,98 @@ public class ImageTileParser implements ITileParser {
 		// build map
 		TEMPLATES = templateBuilder.build ();
 		TILES = tileBuilder.build ();
+
+		// build decision tree
+		TREE = new ImageTileDecisionTree (TEMPLATES.values ());
+		SAMPLES = TREE.getSamples ();
+
+		// log
+		getLogger ().debug ("Built decision tree over " + TEMPLATES.size () + " templates using " + TREE.getProbeCount () + " probe pixels.");
+	}
+
+	/**
+	 * Constructs a new ImageTileParser instance.
+	 */
+	public ImageTileParser () {
+		this (false, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Constructs a new ImageTileParser instance.
+	 * @param verificationEnabled True if classified tiles should be verified against their full template.
+	 * @param cacheSize The maximum amount of cached parse results (zero disables the cache).
+	 */
+	public ImageTileParser (boolean verificationEnabled, int cacheSize) {
+		this.verificationEnabled = verificationEnabled;
+		this.cache = (cacheSize > 0 ? CacheBuilder.newBuilder ().maximumSize (cacheSize).recordStats ().<Long, Optional<ImageTileTemplate>>build () : null);
+	}
+
+	/**
+	 * Returns the cache statistics.
+	 * @return The statistics (or null if caching is disabled).
+	 */
+	public CacheStats getCacheStats () {
+		return (this.cache != null ? this.cache.stats () : null);
+	}
+
+	/**
+	 * Classifies a tile.
+	 * @param sourceTile The source tile.
+	 * @return The matching template (or null if no template matches).
+	 */
+	protected ImageTileTemplate classify (@NonNull ITileTemplate sourceTile) {
+		// get candidates
+		List<ImageTileTemplate> candidates;
+
+		if (sourceTile instanceof ImageTileTemplate)
+			candidates = TREE.classify (((ImageTileTemplate) sourceTile));
+		else if (sourceTile instanceof FingerprintTileTemplate)
+			candidates = TREE.classify (((FingerprintTileTemplate) sourceTile));
+		else
+			candidates = Collections.emptyList ();
+
+		// find template
+		for (ImageTileTemplate template : candidates) {
+			// skip non-matching tiles (templates which cannot be told apart by the tree are always verified)
+			// fingerprints may only be verified against the sample pixels they carry
+			if ((this.verificationEnabled || candidates.size () > 1) && !(sourceTile instanceof FingerprintTileTemplate ? sourceTile.matches (template) : template.matches (sourceTile))) {
+				getLogger ().debug ("Tile was classified as \"" + template.getName () + "\" but does not match its template.");
+				continue;
+			}
+
+			return template;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the checksum a tile is cached by.
+	 *
+	 * Unless tiles are verified against their full template, only the sample pixels read by the decision tree are
+	 * hashed (all other pixels do not influence the result as long as the tree separates all templates).
+	 * @param sourceTile The source tile.
+	 * @return The checksum.
+	 */
+	public long getChecksum (@NonNull ITileTemplate sourceTile) {
+		if (!this.verificationEnabled && sourceTile instanceof ImageTileTemplate) return ((ImageTileTemplate) sourceTile).getChecksum (SAMPLES);
+		return sourceTile.getChecksum ();
+	}
+
+	/**
+	 * Returns the offsets of all pixels needed to classify a tile (see {@link FingerprintTileTemplate}).
+	 * @return The offsets (in row-major order of a single tile).
+	 */
+	public static int[] getSamples () {
+		return TREE.getSamples ();
+	}
+
+	/**
+	 * Returns the size of a single tile.
+	 * @return The width (tiles are square).
+	 */
+	public static int getTileSize () {
+		return TREE.getWidth ();
 	}
 
 	/**
@@ -123,43 +248,21 @@ public class ImageTileParser implements ITileParser {
 	public ITile parse (@NonNull ITileTemplate sourceTile, @NonNull TileLocation location) throws TileException {
 		getLogger ().entry ();
 
-		// find template
-		for (Map.Entry<String, ImageTileTemplate> entry : TEMPLATES.entrySet ()) {
-			// skip non-matching tiles
-			if (!entry.getValue ().matches (sourceTile)) continue;
+		// resolve template
+		ImageTileTemplate template = this.resolve (sourceTile);
 
-			// verify template
-			if (!TILES.containsKey (entry.getKey ())) throw new UnknownTileException ("Could not find tile for template \"" + entry.getKey () + "\".");
+		if (template != null) {
+			// get factory
+			ITileFactory factory = TILES.get (template.getName ());
 
-			// get class
-			Class<? extends ITile> clazz = TILES.get (entry.getKey ());
+			// verify template
+			if (factory == null) throw new UnknownTileException ("Could not find tile for template \"" + template.getName () + "\".");
 
 			// log
-			getLogger ().trace ("Found matching template \"" + entry.getKey () + "\" which is assigned to tile " + clazz.getName () + ".");
+			getLogger ().trace ("Found matching template \"" + template.getName () + "\".");
 
 			// construct
-			try {
-				// find constructor
-				Constructor<? extends ITile> constructor = clazz.getConstructor (TileLocation.class, ITileTemplate.class, ITileParser.class);
-
-				// ensure constructor is accessible
-				constructor.setAccessible (true);
-
-				// create a new instance
-				return getLogger ().exit (constructor.newInstance (location, entry.getValue (), this));
-			} catch (NoSuchMethodException ex) {
-				// warn
-				getLogger ().warn ("Could not find appropriate constructor (TileLocation, ITileTemplate, ITileParser) for tile \"" + clazz.getName () + "\".");
-
-				// fuck over everyone
-				throw new TileInitializationException ("Could not find appropriate constructor (TileLocation, ITileTemplate, ITileParser) for tile \"" + clazz.getName () + "\".");
-			} catch (InstantiationException | IllegalAccessException | InvocationTargetException ex) {
-				// warn
-				getLogger ().warn ("Could not construct tile \"" + clazz.getName () + "\": " + ex.getMessage (), ex);
-
-				// fuck over everyone
-				throw new TileInitializationException ("Could not construct tile \"" + clazz.getName () + "\": " + ex.getMessage (), ex);
-			}
+			return getLogger ().exit (factory.create (location, template, this));
 		}
 
 		// warn
@@ -168,4 +271,38 @@ public class ImageTileParser implements ITileParser {
 		// assume flag
 		return getLogger ().exit (new FlaggedTile (location, null, this));
 	}
+
+	/**
+	 * Resolves the template of a tile (using the cache if possible).
+	 *
+	 * Unlike {@link #parse(ITileTemplate, TileLocation)} no tile instance is created which allows callers to store
+	 * the result in their own representation.
+	 * @param sourceTile The source tile.
+	 * @return The matching template (or null if no template matches).
+	 */
+	public ImageTileTemplate resolve (@NonNull ITileTemplate sourceTile) {
+		return this.resolve (sourceTile, (this.cache != null ? this.getChecksum (sourceTile) : 0));
+	}
+
+	/**
+	 * Resolves the template of a tile whose checksum is already known (using the cache if possible).
+	 * @param sourceTile The source tile.
+	 * @param checksum The checksum (as returned by {@link #getChecksum(ITileTemplate)}).
+	 * @return The matching template (or null if no template matches).
+	 */
+	public ImageTileTemplate resolve (@NonNull ITileTemplate sourceTile, long checksum) {
+		// skip cache
+		if (this.cache == null) return this.classify (sourceTile);
+
+		// look up previous result
+		Optional<ImageTileTemplate> template = this.cache.getIfPresent (checksum);
+
+		if (template != null) return template.orNull ();
+
+		// classify and store
+		template = Optional.fromNullable (this.classify (sourceTile));
+		this.cache.put (checksum, template);
+
+		return template.orNull ();
+	}
 }
\ No newline at end of file
@@ -18,25 +18,41 @@ package org.evilco.bot.powersweeper.game.tile.parser.image;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.evilco.bot.powersweeper.game.tile.parser.ITileTemplate;
 
 import java.awt.image.BufferedImage;
 
 /**
+ * Represents a tile image.
+ *
+ * Pixels are either decoded from a separate image or read directly from a shared frame buffer (in which case the
+ * template is a view of a rectangular region within the buffer and no pixels are copied).
+ *
  * @author Johannes Donath <johannesd@evil-co.com>
  * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
  */
-@RequiredArgsConstructor
 public class ImageTileTemplate implements ITileTemplate {
 
 	/**
-	 * Stores the tile image.
+	 * Stores the pixel checksum (calculated on first use).
+	 */
+	private long checksum;
+
+	/**
+	 * Indicates whether the checksum has been calculated.
+	 */
+	private volatile boolean checksumCalculated = false;
+
+	/**
+	 * Stores the image height.
+	 */
+	@Getter
+	private final int height;
+
+	/**
+	 * Stores the tile image (or null if this template is a view of a frame buffer).
 	 */
 	@Getter
-	@NonNull
 	private final BufferedImage image;
 
 	/**
@@ -46,40 +62,182 @@ public class ImageTileTemplate implements ITileTemplate {
 	private final String name;
 
 	/**
-	 * Stores the internal logger instance.
+	 * Stores the index of the first pixel within the pixel array.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private final int offset;
+
+	/**
+	 * Stores the offsets of all opaque pixels (calculated on first use).
+	 */
+	private volatile int[] opaquePixels = null;
+
+	/**
+	 * Stores all pixels (packed ARGB in row-major order).
 	 */
 	@Getter (AccessLevel.PROTECTED)
-	private static final Logger logger = LogManager.getLogger (ImageTileTemplate.class);
+	private final int[] pixels;
+
+	/**
+	 * Stores the distance between two rows within the pixel array.
+	 */
+	@Getter (AccessLevel.PROTECTED)
+	private final int scanline;
+
+	/**
+	 * Stores the image width.
+	 */
+	@Getter
+	private final int width;
+
+	/**
+	 * Constructs a new ImageTileTemplate instance.
+	 * @param image The tile image.
+	 * @param name The template name (if any).
+	 */
+	public ImageTileTemplate (@NonNull BufferedImage image, String name) {
+		this.image = image;
+		this.name = name;
+		this.width = image.getWidth ();
+		this.height = image.getHeight ();
+
+		// decode pixels
+		this.pixels = image.getRGB (0, 0, this.width, this.height, null, 0, this.width);
+		this.offset = 0;
+		this.scanline = this.width;
+	}
+
+	/**
+	 * Constructs a new ImageTileTemplate instance which reads its pixels from a frame buffer.
+	 * @param pixels The frame buffer (packed ARGB in row-major order).
+	 * @param offset The index of the first pixel.
+	 * @param scanline The distance between two rows.
+	 * @param width The tile width.
+	 * @param height The tile height.
+	 * @param name The template name (if any).
+	 */
+	public ImageTileTemplate (@NonNull int[] pixels, int offset, int scanline, int width, int height, String name) {
+		if (offset < 0 || width > scanline || (offset + ((height - 1) * scanline) + width) > pixels.length) throw new IllegalArgumentException ("Tile exceeds the bounds of its frame buffer.");
+
+		this.image = null;
+		this.name = name;
+		this.pixels = pixels;
+		this.offset = offset;
+		this.scanline = scanline;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Returns a checksum over all pixels (64-bit FNV-1a over packed pixels).
+	 * @return The checksum.
+	 */
+	@Override
+	public long getChecksum () {
+		// return cached version
+		if (this.checksumCalculated) return this.checksum;
+
+		// calculate
+		long checksum = 0xCBF29CE484222325L;
+
+		for (int y = 0; y < this.height; y++) {
+			for (int i = this.getIndex (0, y), end = (i + this.width); i < end; i++) {
+				checksum ^= this.pixels[i];
+				checksum *= 0x100000001B3L;
+			}
+		}
+
+		// store
+		this.checksum = checksum;
+		this.checksumCalculated = true;
+
+		return checksum;
+	}
+
+	/**
+	 * Returns a checksum over a set of sample pixels (which equals the checksum of a fingerprint carrying the same
+	 * samples).
+	 * @param samples The sample offsets (in row-major order of this tile).
+	 * @return The checksum.
+	 */
+	public long getChecksum (@NonNull int[] samples) {
+		long checksum = 0xCBF29CE484222325L;
+
+		for (int sample : samples) {
+			checksum ^= this.getPixel ((sample % this.width), (sample / this.width));
+			checksum *= 0x100000001B3L;
+		}
+
+		return checksum;
+	}
+
+	/**
+	 * Returns the offsets of all opaque pixels.
+	 * @return The offsets.
+	 */
+	protected int[] getOpaquePixels () {
+		// return cached version
+		if (this.opaquePixels != null) return this.opaquePixels;
+
+		// count opaque pixels
+		int count = 0;
+
+		for (int y = 0; y < this.height; y++)
+			for (int x = 0; x < this.width; x++) if ((this.getPixel (x, y) >> 24) != 0x00) count++;
+
+		// collect offsets
+		int[] opaquePixels = new int[count];
+
+		for (int i = 0, j = 0; i < (this.width * this.height); i++) if ((this.getPixel ((i % this.width), (i / this.width)) >> 24) != 0x00) opaquePixels[j++] = i;
+
+		// store
+		return (this.opaquePixels = opaquePixels);
+	}
+
+	/**
+	 * Returns the index of a pixel within the pixel array.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return The index.
+	 */
+	protected int getIndex (int x, int y) {
+		return (this.offset + (y * this.scanline) + x);
+	}
+
+	/**
+	 * Returns a single pixel.
+	 * @param x The X-Coordinate.
+	 * @param y The Y-Coordinate.
+	 * @return The packed ARGB value.
+	 */
+	public int getPixel (int x, int y) {
+		return this.pixels[this.getIndex (x, y)];
+	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public boolean matches (ITileTemplate template2) {
-		getLogger ().entry ();
-
 		// check type
-		if (!(template2 instanceof ImageTileTemplate)) return getLogger ().exit (false);
+		if (!(template2 instanceof ImageTileTemplate)) return false;
 
 		// cast
 		ImageTileTemplate image = ((ImageTileTemplate) template2);
 
 		// check size
-		if (this.image.getWidth () != image.getImage ().getWidth ()) return getLogger ().exit (false);
-		if (this.image.getHeight () != image.getImage ().getHeight ()) return getLogger ().exit (false);
+		if (this.width != image.width) return false;
+		if (this.height != image.height) return false;
 
-		// compare pixels
-		for (int x = 0; x < this.image.getWidth (); x++) {
-			for (int y = 0; y < this.image.getHeight (); y++) {
-				// extract alpha value
-				int alpha = (this.image.getRGB (x, y) >> 24);
+		// compare pixels (transparent pixels are ignored)
+		for (int offset : this.getOpaquePixels ()) {
+			int x = (offset % this.width);
+			int y = (offset / this.width);
 
-				// ignore transparent pixels
-				if (alpha != 0x00 && this.image.getRGB (x, y) != image.getImage ().getRGB (x, y)) return getLogger ().exit (false);
-			}
+			if (this.getPixel (x, y) != image.getPixel (x, y)) return false;
 		}
 
 		// all okay
-		return getLogger ().exit (true);
+		return true;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.game.tile.parser.image;
+
+import com.google.common.primitives.Ints;
+import lombok.NonNull;
+import org.evilco.bot.powersweeper.game.tile.parser.ITileTemplate;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares images by reducing runs of opaque pixels with XOR/OR instead of comparing pixel by pixel.
+ *
+ * Each row of opaque pixels is stored as a run. Runs are compared without branching (which allows the JIT to use wide
+ * instructions for the reduction) and mismatches are detected once per run.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class RunLengthImageTileTemplate extends ImageTileTemplate {
+
+	/**
+	 * Stores all opaque runs (triples of row, first column and column after the last column).
+	 */
+	private final int[] runs;
+
+	/**
+	 * Constructs a new RunLengthImageTileTemplate instance.
+	 * @param image The tile image.
+	 * @param name The template name (if any).
+	 */
+	public RunLengthImageTileTemplate (@NonNull BufferedImage image, String name) {
+		super (image, name);
+
+		// find runs
+		List<Integer> runs = new ArrayList<> ();
+
+		for (int y = 0; y < this.getHeight (); y++) {
+			int start = -1;
+
+			for (int x = 0; x <= this.getWidth (); x++) {
+				boolean opaque = (x < this.getWidth () && (this.getPixel (x, y) >> 24) != 0x00);
+
+				// start run
+				if (opaque && start == -1) start = x;
+				if (opaque || start == -1) continue;
+
+				// end run
+				runs.add (y);
+				runs.add (start);
+				runs.add (x);
+				start = -1;
+			}
+		}
+
+		this.runs = Ints.toArray (runs);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean matches (ITileTemplate template2) {
+		// check type
+		if (!(template2 instanceof ImageTileTemplate)) return false;
+
+		// cast
+		ImageTileTemplate image = ((ImageTileTemplate) template2);
+
+		// check size
+		if (this.getWidth () != image.getWidth ()) return false;
+		if (this.getHeight () != image.getHeight ()) return false;
+
+		// compare runs
+		int[] pixels = this.getPixels ();
+		int[] imagePixels = image.getPixels ();
+
+		for (int i = 0; i < this.runs.length; i += 3) {
+			int offset = this.getIndex (0, this.runs[i]);
+			int imageOffset = image.getIndex (0, this.runs[i]);
+			int difference = 0;
+
+			for (int j = this.runs[(i + 1)]; j < this.runs[(i + 2)]; j++) difference |= (pixels[(offset + j)] ^ imagePixels[(imageOffset + j)]);
+
+			if (difference != 0) return false;
+		}
+
+		// all okay
+		return true;
+	}
+}
\ No newline at end of file
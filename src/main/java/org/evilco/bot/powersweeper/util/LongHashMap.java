@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.util;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Maps primitive long keys to objects without boxing.
+ *
+ * Entries are stored in two parallel arrays using open addressing with linear probing. Removed entries are filled by
+ * shifting back subsequent entries of the same probe sequence (so no tombstones are needed). Null values are not
+ * supported.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class LongHashMap<V> {
+
+	/**
+	 * Defines the default capacity.
+	 */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Stores all keys.
+	 */
+	private long[] keys;
+
+	/**
+	 * Stores the slot mask (table size - 1).
+	 */
+	private int mask;
+
+	/**
+	 * Stores the amount of entries.
+	 */
+	private int size = 0;
+
+	/**
+	 * Stores all values (null marks empty slots).
+	 */
+	private Object[] values;
+
+	/**
+	 * Constructs a new LongHashMap instance.
+	 */
+	public LongHashMap () {
+		this (DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new LongHashMap instance.
+	 * @param capacity The amount of entries to allocate space for.
+	 */
+	public LongHashMap (int capacity) {
+		this.allocate (LongHashSet.getTableSize (capacity));
+	}
+
+	/**
+	 * Allocates a new (empty) table.
+	 * @param tableSize The table size (a power of two).
+	 */
+	private void allocate (int tableSize) {
+		this.keys = new long[tableSize];
+		this.values = new Object[tableSize];
+		this.mask = (tableSize - 1);
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear () {
+		Arrays.fill (this.values, null);
+		this.size = 0;
+	}
+
+	/**
+	 * Checks whether a key is mapped.
+	 * @param key The key.
+	 * @return True if the key is mapped.
+	 */
+	public boolean containsKey (long key) {
+		return (this.get (key) != null);
+	}
+
+	/**
+	 * Returns the value of a key.
+	 * @param key The key.
+	 * @return The value (or null if the key is not mapped).
+	 */
+	@SuppressWarnings ("unchecked")
+	public V get (long key) {
+		for (int slot = (LongHashSet.hash (key) & this.mask); this.values[slot] != null; slot = ((slot + 1) & this.mask)) {
+			if (this.keys[slot] == key) return ((V) this.values[slot]);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Checks whether the map is empty.
+	 * @return True if the map is empty.
+	 */
+	public boolean isEmpty () {
+		return (this.size == 0);
+	}
+
+	/**
+	 * Returns all keys.
+	 * @return The keys (in no particular order).
+	 */
+	public long[] keys () {
+		long[] keys = new long[this.size];
+		int i = 0;
+
+		for (int slot = 0; slot < this.values.length; slot++) {
+			if (this.values[slot] != null) keys[i++] = this.keys[slot];
+		}
+
+		return keys;
+	}
+
+	/**
+	 * Maps a key to a value.
+	 * @param key The key.
+	 * @param value The value.
+	 * @return The previous value (or null if the key was not mapped before).
+	 */
+	@SuppressWarnings ("unchecked")
+	public V put (long key, @NonNull V value) {
+		int slot = (LongHashSet.hash (key) & this.mask);
+
+		for (; this.values[slot] != null; slot = ((slot + 1) & this.mask)) {
+			if (this.keys[slot] != key) continue;
+
+			V previous = ((V) this.values[slot]);
+			this.values[slot] = value;
+			return previous;
+		}
+
+		this.keys[slot] = key;
+		this.values[slot] = value;
+
+		// grow table
+		if (++this.size > LongHashSet.getThreshold (this.values.length)) this.resize ((this.values.length << 1));
+
+		return null;
+	}
+
+	/**
+	 * Removes a key.
+	 * @param key The key.
+	 * @return The previous value (or null if the key was not mapped).
+	 */
+	@SuppressWarnings ("unchecked")
+	public V remove (long key) {
+		int slot = (LongHashSet.hash (key) & this.mask);
+
+		while (this.values[slot] != null && this.keys[slot] != key) slot = ((slot + 1) & this.mask);
+		if (this.values[slot] == null) return null;
+
+		V previous = ((V) this.values[slot]);
+
+		// shift back entries which would no longer be reachable
+		int gap = slot;
+
+		for (int next = ((gap + 1) & this.mask); this.values[next] != null; next = ((next + 1) & this.mask)) {
+			int home = (LongHashSet.hash (this.keys[next]) & this.mask);
+			if (((next - home) & this.mask) < ((next - gap) & this.mask)) continue;
+
+			this.keys[gap] = this.keys[next];
+			this.values[gap] = this.values[next];
+			gap = next;
+		}
+
+		this.values[gap] = null;
+		this.size--;
+
+		return previous;
+	}
+
+	/**
+	 * Re-builds the table with a new size.
+	 * @param tableSize The table size (a power of two).
+	 */
+	@SuppressWarnings ("unchecked")
+	private void resize (int tableSize) {
+		long[] keys = this.keys;
+		Object[] values = this.values;
+
+		this.allocate (tableSize);
+		this.size = 0;
+
+		for (int slot = 0; slot < values.length; slot++) {
+			if (values[slot] != null) this.put (keys[slot], ((V) values[slot]));
+		}
+	}
+
+	/**
+	 * Returns the amount of entries.
+	 * @return The amount of entries.
+	 */
+	public int size () {
+		return this.size;
+	}
+}
\ No newline at end of file
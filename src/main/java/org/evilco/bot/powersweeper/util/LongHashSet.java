@@ -0,0 +1,227 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.util;
+
+import java.util.Arrays;
+
+/**
+ * Stores a set of primitive long values without boxing.
+ *
+ * Values are stored using open addressing with linear probing (see {@link LongHashMap}).
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class LongHashSet {
+
+	/**
+	 * Defines the maximum fill ratio of a table (in percent).
+	 */
+	public static final int LOAD_FACTOR = 50;
+
+	/**
+	 * Stores the slot mask (table size - 1).
+	 */
+	private int mask;
+
+	/**
+	 * Stores the amount of values.
+	 */
+	private int size = 0;
+
+	/**
+	 * Indicates which slots are in use.
+	 */
+	private boolean[] used;
+
+	/**
+	 * Stores all values.
+	 */
+	private long[] values;
+
+	/**
+	 * Constructs a new LongHashSet instance.
+	 */
+	public LongHashSet () {
+		this (LongHashMap.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new LongHashSet instance.
+	 * @param capacity The amount of values to allocate space for.
+	 */
+	public LongHashSet (int capacity) {
+		this.allocate (getTableSize (capacity));
+	}
+
+	/**
+	 * Adds a value.
+	 * @param value The value.
+	 * @return True if the value was not part of the set before.
+	 */
+	public boolean add (long value) {
+		int slot = (hash (value) & this.mask);
+
+		for (; this.used[slot]; slot = ((slot + 1) & this.mask)) {
+			if (this.values[slot] == value) return false;
+		}
+
+		this.values[slot] = value;
+		this.used[slot] = true;
+
+		// grow table
+		if (++this.size > getThreshold (this.values.length)) this.resize ((this.values.length << 1));
+
+		return true;
+	}
+
+	/**
+	 * Allocates a new (empty) table.
+	 * @param tableSize The table size (a power of two).
+	 */
+	private void allocate (int tableSize) {
+		this.values = new long[tableSize];
+		this.used = new boolean[tableSize];
+		this.mask = (tableSize - 1);
+	}
+
+	/**
+	 * Removes all values.
+	 */
+	public void clear () {
+		Arrays.fill (this.used, false);
+		this.size = 0;
+	}
+
+	/**
+	 * Checks whether a value is part of the set.
+	 * @param value The value.
+	 * @return True if the value is part of the set.
+	 */
+	public boolean contains (long value) {
+		for (int slot = (hash (value) & this.mask); this.used[slot]; slot = ((slot + 1) & this.mask)) {
+			if (this.values[slot] == value) return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the table size needed for a certain amount of entries.
+	 * @param capacity The amount of entries.
+	 * @return The table size (a power of two).
+	 */
+	static int getTableSize (int capacity) {
+		int tableSize = 2;
+		while (getThreshold (tableSize) < capacity) tableSize <<= 1;
+
+		return tableSize;
+	}
+
+	/**
+	 * Returns the maximum amount of entries within a table.
+	 * @param tableSize The table size.
+	 * @return The amount of entries.
+	 */
+	static int getThreshold (int tableSize) {
+		return ((int) (((long) tableSize * LOAD_FACTOR) / 100));
+	}
+
+	/**
+	 * Calculates the hash of a key.
+	 * @param key The key.
+	 * @return The hash.
+	 */
+	static int hash (long key) {
+		long hash = (key * 0x9E3779B97F4A7C15L);
+		return ((int) (hash ^ (hash >>> 32)));
+	}
+
+	/**
+	 * Checks whether the set is empty.
+	 * @return True if the set is empty.
+	 */
+	public boolean isEmpty () {
+		return (this.size == 0);
+	}
+
+	/**
+	 * Removes a value.
+	 * @param value The value.
+	 * @return True if the value was part of the set.
+	 */
+	public boolean remove (long value) {
+		int slot = (hash (value) & this.mask);
+
+		while (this.used[slot] && this.values[slot] != value) slot = ((slot + 1) & this.mask);
+		if (!this.used[slot]) return false;
+
+		// shift back values which would no longer be reachable
+		int gap = slot;
+
+		for (int next = ((gap + 1) & this.mask); this.used[next]; next = ((next + 1) & this.mask)) {
+			int home = (hash (this.values[next]) & this.mask);
+			if (((next - home) & this.mask) < ((next - gap) & this.mask)) continue;
+
+			this.values[gap] = this.values[next];
+			gap = next;
+		}
+
+		this.used[gap] = false;
+		this.size--;
+
+		return true;
+	}
+
+	/**
+	 * Re-builds the table with a new size.
+	 * @param tableSize The table size (a power of two).
+	 */
+	private void resize (int tableSize) {
+		long[] values = this.values;
+		boolean[] used = this.used;
+
+		this.allocate (tableSize);
+		this.size = 0;
+
+		for (int slot = 0; slot < values.length; slot++) {
+			if (used[slot]) this.add (values[slot]);
+		}
+	}
+
+	/**
+	 * Returns the amount of values.
+	 * @return The amount of values.
+	 */
+	public int size () {
+		return this.size;
+	}
+
+	/**
+	 * Returns all values.
+	 * @return The values (in no particular order).
+	 */
+	public long[] toArray () {
+		long[] values = new long[this.size];
+		int i = 0;
+
+		for (int slot = 0; slot < this.values.length; slot++) {
+			if (this.used[slot]) values[i++] = this.values[slot];
+		}
+
+		return values;
+	}
+}
\ No newline at end of file
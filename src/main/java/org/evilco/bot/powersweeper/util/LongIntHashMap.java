@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.util;
+
+import java.util.Arrays;
+
+/**
+ * Maps primitive long keys to primitive int values without boxing.
+ *
+ * Entries are stored using open addressing with linear probing (see {@link LongHashMap}). Entries cannot be removed.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class LongIntHashMap {
+
+	/**
+	 * Stores all keys.
+	 */
+	private long[] keys;
+
+	/**
+	 * Stores the slot mask (table size - 1).
+	 */
+	private int mask;
+
+	/**
+	 * Stores the amount of entries.
+	 */
+	private int size = 0;
+
+	/**
+	 * Indicates which slots are in use.
+	 */
+	private boolean[] used;
+
+	/**
+	 * Stores all values.
+	 */
+	private int[] values;
+
+	/**
+	 * Constructs a new LongIntHashMap instance.
+	 */
+	public LongIntHashMap () {
+		this (LongHashMap.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new LongIntHashMap instance.
+	 * @param capacity The amount of entries to allocate space for.
+	 */
+	public LongIntHashMap (int capacity) {
+		this.allocate (LongHashSet.getTableSize (capacity));
+	}
+
+	/**
+	 * Allocates a new (empty) table.
+	 * @param tableSize The table size (a power of two).
+	 */
+	private void allocate (int tableSize) {
+		this.keys = new long[tableSize];
+		this.used = new boolean[tableSize];
+		this.values = new int[tableSize];
+		this.mask = (tableSize - 1);
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear () {
+		Arrays.fill (this.used, false);
+		this.size = 0;
+	}
+
+	/**
+	 * Checks whether a key is mapped.
+	 * @param key The key.
+	 * @return True if the key is mapped.
+	 */
+	public boolean containsKey (long key) {
+		return (this.find (key) >= 0);
+	}
+
+	/**
+	 * Locates the slot of a key.
+	 * @param key The key.
+	 * @return The slot (or -1 if the key is not mapped).
+	 */
+	private int find (long key) {
+		for (int slot = (LongHashSet.hash (key) & this.mask); this.used[slot]; slot = ((slot + 1) & this.mask)) {
+			if (this.keys[slot] == key) return slot;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the value of a key.
+	 * @param key The key.
+	 * @param defaultValue The value to return if the key is not mapped.
+	 * @return The value.
+	 */
+	public int get (long key, int defaultValue) {
+		int slot = this.find (key);
+		return (slot >= 0 ? this.values[slot] : defaultValue);
+	}
+
+	/**
+	 * Checks whether the map is empty.
+	 * @return True if the map is empty.
+	 */
+	public boolean isEmpty () {
+		return (this.size == 0);
+	}
+
+	/**
+	 * Maps a key to a value.
+	 * @param key The key.
+	 * @param value The value.
+	 * @return True if the key was not mapped before.
+	 */
+	public boolean put (long key, int value) {
+		int slot = (LongHashSet.hash (key) & this.mask);
+
+		for (; this.used[slot]; slot = ((slot + 1) & this.mask)) {
+			if (this.keys[slot] != key) continue;
+
+			this.values[slot] = value;
+			return false;
+		}
+
+		this.keys[slot] = key;
+		this.used[slot] = true;
+		this.values[slot] = value;
+
+		// grow table
+		if (++this.size > LongHashSet.getThreshold (this.used.length)) this.resize ((this.used.length << 1));
+
+		return true;
+	}
+
+	/**
+	 * Re-builds the table with a new size.
+	 * @param tableSize The table size (a power of two).
+	 */
+	private void resize (int tableSize) {
+		long[] keys = this.keys;
+		boolean[] used = this.used;
+		int[] values = this.values;
+
+		this.allocate (tableSize);
+		this.size = 0;
+
+		for (int slot = 0; slot < used.length; slot++) {
+			if (used[slot]) this.put (keys[slot], values[slot]);
+		}
+	}
+
+	/**
+	 * Returns the amount of entries.
+	 * @return The amount of entries.
+	 */
+	public int size () {
+		return this.size;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*
+ * Extracts the sample pixels of a region of cells from the canvases of the game board.
+ *
+ * Arguments: first column, first row, column count, row count, cell size (in CSS pixels), sample offsets (row-major
+ * within a tile of the given width), tile width.
+ * Returns: A flat array of packed ARGB values (cells of the region in row-major order, samples in the passed order) or
+ * null if any sample is not covered by a readable canvas.
+ */
+return (function (firstColumn, firstRow, columns, rows, cellSize, samples, tileWidth) {
+	// collect readable canvases (topmost last)
+	var canvases = [];
+	var elements = document.getElementsByTagName ('canvas');
+
+	for (var i = 0; i < elements.length; i++) {
+		var bounds = elements[i].getBoundingClientRect ();
+		if (bounds.width == 0 || bounds.height == 0) continue;
+
+		try {
+			var context = elements[i].getContext ('2d');
+			if (context == null) continue;
+
+			canvases.push ({
+				bounds: bounds,
+				width: elements[i].width,
+				scaleX: (elements[i].width / bounds.width),
+				scaleY: (elements[i].height / bounds.height),
+				data: context.getImageData (0, 0, elements[i].width, elements[i].height).data
+			});
+		} catch (ex) {
+			// tainted canvases cannot be read
+		}
+	}
+
+	// read samples
+	var result = new Array (columns * rows * samples.length);
+	var index = 0;
+
+	for (var y = firstRow; y < (firstRow + rows); y++) {
+		for (var x = firstColumn; x < (firstColumn + columns); x++) {
+			for (var i = 0; i < samples.length; i++) {
+				var pageX = ((x * cellSize) + (samples[i] % tileWidth));
+				var pageY = ((y * cellSize) + Math.floor (samples[i] / tileWidth));
+				var value = null;
+
+				for (var j = canvases.length - 1; j >= 0 && value == null; j--) {
+					var canvas = canvases[j];
+					if (pageX < canvas.bounds.left || pageY < canvas.bounds.top || pageX >= canvas.bounds.right || pageY >= canvas.bounds.bottom) continue;
+
+					var offset = (((Math.floor ((pageY - canvas.bounds.top) * canvas.scaleY) * canvas.width) + Math.floor ((pageX - canvas.bounds.left) * canvas.scaleX)) * 4);
+
+					// screenshots are always opaque
+					value = ((0xFF << 24) | (canvas.data[offset] << 16) | (canvas.data[offset + 1] << 8) | canvas.data[offset + 2]);
+				}
+
+				if (value == null) return null;
+				result[index++] = value;
+			}
+		}
+	}
+
+	return result;
+}) (arguments[0], arguments[1], arguments[2], arguments[3], arguments[4], arguments[5], arguments[6]);
\ No newline at end of file
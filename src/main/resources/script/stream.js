@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*
+ * Installs a capture loop which keeps the newest fingerprint frame in a single slot (window.powersweeperStream).
+ *
+ * Each frame records the input counter it was captured at. The counter is increased by every mouse button event which
+ * allows callers to reject frames which were captured before their last action.
+ *
+ * Arguments: fingerprint script source, minimum frame interval (in milliseconds), fingerprint script arguments.
+ */
+(function (source, interval, parameters) {
+	// stop previous loop
+	if (window.powersweeperStream) window.powersweeperStream.stop ();
+
+	// create stream
+	var capture = new Function (source);
+	var stream = { frame: null, input: 0, running: true, sequence: 0 };
+	var last = 0;
+
+	var markInput = function () {
+		stream.input++;
+	};
+
+	var tick = function (time) {
+		if (!stream.running) return;
+
+		// capture frame (the previous frame is replaced)
+		if ((time - last) >= interval) {
+			var input = stream.input;
+			last = time;
+
+			stream.frame = { input: input, sequence: ++stream.sequence, values: capture.apply (null, parameters) };
+		}
+
+		window.requestAnimationFrame (tick);
+	};
+
+	stream.stop = function () {
+		stream.running = false;
+
+		document.removeEventListener ('mousedown', markInput, true);
+		document.removeEventListener ('mouseup', markInput, true);
+		document.removeEventListener ('contextmenu', markInput, true);
+	};
+
+	// track input
+	document.addEventListener ('mousedown', markInput, true);
+	document.addEventListener ('mouseup', markInput, true);
+	document.addEventListener ('contextmenu', markInput, true);
+
+	// start loop
+	window.powersweeperStream = stream;
+	window.requestAnimationFrame (tick);
+}) (arguments[0], arguments[1], Array.prototype.slice.call (arguments, 2));
\ No newline at end of file
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 Johannes Donath <johannesd@evil-co.com>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.evilco.bot.powersweeper.brain;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the constraint propagation of {@link PropagationBrain} with hand-built constraints.
+ *
+ * @author Johannes Donath <johannesd@evil-co.com>
+ * @copyright Copyright (C) 2014 Evil-Co <http://www.evil-co.com>
+ */
+public class PropagationBrainTest {
+
+	/**
+	 * Stores the brain under test.
+	 */
+	private RecordingBrain brain;
+
+	/**
+	 * Creates a new brain for every test.
+	 */
+	@Before
+	public void setUp () {
+		this.brain = new RecordingBrain ();
+	}
+
+	/**
+	 * Adds a constraint to the brain.
+	 * @param mines The amount of mines.
+	 * @param cells The cell keys.
+	 * @return The constraint.
+	 */
+	protected PropagationBrain.Constraint addConstraint (int mines, long... cells) {
+		PropagationBrain.Constraint constraint = new PropagationBrain.Constraint (cells, mines);
+		this.brain.addConstraint (constraint);
+		return constraint;
+	}
+
+	/**
+	 * Asserts that cells are undetermined.
+	 * @param cells The cell keys.
+	 */
+	protected void assertUndetermined (long... cells) {
+		for (long cell : cells) {
+			assertFalse ("Cell " + cell + " is a mine.", this.brain.getMines ().contains (cell));
+			assertFalse ("Cell " + cell + " is safe.", this.brain.getSafe ().contains (cell));
+		}
+	}
+
+	/**
+	 * Tests that the cells of a constraint outside of a subset holding all of its mines are safe.
+	 */
+	@Test
+	public void testSubset () {
+		this.addConstraint (1, 1, 2);
+		this.addConstraint (1, 1, 2, 3);
+		this.brain.propagate ();
+
+		assertTrue (this.brain.getSafe ().contains (3));
+		assertEquals (0, this.brain.getMines ().size ());
+		assertUndetermined (1, 2);
+	}
+
+	/**
+	 * Tests that the cells of a constraint outside of a subset holding too few of its mines are mines.
+	 */
+	@Test
+	public void testSuperset () {
+		this.addConstraint (2, 1, 2, 3);
+		this.addConstraint (1, 1, 2);
+		this.brain.propagate ();
+
+		assertTrue (this.brain.getMines ().contains (3));
+		assertEquals (0, this.brain.getSafe ().size ());
+		assertUndetermined (1, 2);
+	}
+
+	/**
+	 * Tests that partially overlapping constraints determine both of their exclusive cells.
+	 */
+	@Test
+	public void testExclusiveMine () {
+		// the overlap holds at most one mine so cell 1 is a mine and the overlap satisfies the second constraint
+		this.addConstraint (2, 1, 2, 3);
+		this.addConstraint (1, 2, 3, 4);
+		this.brain.propagate ();
+
+		assertTrue (this.brain.getMines ().contains (1));
+		assertTrue (this.brain.getSafe ().contains (4));
+		assertUndetermined (2, 3);
+	}
+
+	/**
+	 * Tests that overlapping constraints which do not determine anything are left alone.
+	 */
+	@Test
+	public void testUndetermined () {
+		this.addConstraint (1, 1, 2);
+		this.addConstraint (1, 2, 3);
+		this.brain.propagate ();
+
+		assertEquals (0, this.brain.getMines ().size ());
+		assertEquals (0, this.brain.getSafe ().size ());
+	}
+
+	/**
+	 * Tests that a deduction only queues the constraints containing the deduced cell again.
+	 */
+	@Test
+	public void testWorklist () {
+		PropagationBrain.Constraint left = this.addConstraint (1, 1, 2);
+		PropagationBrain.Constraint right = this.addConstraint (1, 2, 3);
+		PropagationBrain.Constraint unrelated = this.addConstraint (1, 5, 6);
+
+		this.brain.propagate ();
+		assertEquals (Arrays.asList (left, right, unrelated), this.brain.examined);
+
+		// determining the shared cell clears the remaining cells of both constraints
+		this.brain.examined.clear ();
+		assertTrue (this.brain.determine (2, true));
+		this.brain.propagate ();
+
+		assertFalse (this.brain.examined.contains (unrelated));
+		assertEquals (Arrays.asList (left, right, left, right), this.brain.examined);
+		assertTrue (this.brain.getSafe ().contains (1));
+		assertTrue (this.brain.getSafe ().contains (3));
+		assertUndetermined (5, 6);
+	}
+
+	/**
+	 * Records the order in which constraints are examined.
+	 */
+	protected static class RecordingBrain extends PropagationBrain {
+
+		/**
+		 * Stores all examined constraints (in order).
+		 */
+		private final List<Constraint> examined = new ArrayList<> ();
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void examine (Constraint constraint) {
+			this.examined.add (constraint);
+			super.examine (constraint);
+		}
+	}
+}
\ No newline at end of file